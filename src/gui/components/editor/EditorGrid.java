@@ -10,8 +10,11 @@ import javafx.scene.text.Text;
 import logic.Direction;
 import logic.board.Board;
 import logic.board.FieldType;
+import logic.board.ReachabilityTracker;
 import logic.util.Log;
 
+import java.util.List;
+
 import static logic.util.Log.debug;
 
 /**
@@ -28,6 +31,10 @@ public class EditorGrid extends TextureGrid {
      * Property of start direction
      */
     private ObjectProperty<Direction> startDirectionProperty;
+    /**
+     * Reachability of edited board, updated on every change of a field
+     */
+    private ReachabilityTracker reachability;
 
     /**
      * Instantiates a new Editor grid.
@@ -83,6 +90,9 @@ public class EditorGrid extends TextureGrid {
             for (int y = 0; y < board.getHeight(); y++) {
                 // add to grid
                 var f = new Field(x, y, board.get(x, y));
+                if (reachability != null && board.get(x, y).IS_WALKABLE && !reachability.isReachable(x, y)) {
+                    f.getStyleClass().add("unreachable");
+                }
                 grid.add(f, x, y);
             }
         }
@@ -92,10 +102,19 @@ public class EditorGrid extends TextureGrid {
 
     @Override
     public void setBoard(Board board) {
+        this.reachability = new ReachabilityTracker(board);
         super.setBoard(board);
         draw();
     }
 
+    /**
+     * Exits and coins that can't be reached from start in the edited board
+     * @return list of problems, empty if all of them can be reached
+     */
+    public List<Board.Problem> getUnreachable() {
+        return reachability.getUnreachable();
+    }
+
     /**
      * Grid Field
      */
@@ -152,7 +171,9 @@ public class EditorGrid extends TextureGrid {
          */
         public void replaceFieldType(FieldType before, FieldType after) {
             if (board.contains(before)) {
-                board.set(board.positionOf(before), after);
+                var position = board.positionOf(before);
+                board.set(position, after);
+                reachability.update(position.X(), position.Y());
                 assert !board.contains(before);
                 draw();
             }
@@ -169,6 +190,7 @@ public class EditorGrid extends TextureGrid {
 
             // set field type
             board.set(x, y, fieldType);
+            reachability.update(x, y);
             draw();
             debug("Field[%d|%d] now: %s\n", x, y, fieldType);
         }
@@ -11,6 +11,7 @@ import gui.components.game.ProcedureEditor;
 import gui.components.game.ProcedureGrid;
 import gui.components.SwitchButton;
 import gui.components.SwitchPane;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.event.ActionEvent;
@@ -21,13 +22,18 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import logic.board.GameLevel;
+import logic.board.LevelBinaryFormat;
+import logic.board.LevelSaver;
+import logic.board.LevelStore;
+import logic.board.AnalysisCache;
 import logic.GameLogic;
 import logic.board.Board;
-import logic.board.FieldType;
 import logic.util.Log;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
 
@@ -93,6 +99,14 @@ public class ShellController implements Initializable {
      * The Gui.
      */
     private FxUserInterface gui;
+    /**
+     * Writes saved levels in the background
+     */
+    private final LevelSaver levelSaver = new LevelSaver();
+    /**
+     * Levels and analyses seen in earlier sessions, null if the store can't be opened
+     */
+    private LevelStore levelStore;
 
     @FXML
     private BorderPane paneStage;
@@ -119,6 +133,14 @@ public class ShellController implements Initializable {
         // initialize ui
         gui = new FxUserInterface(this, infoBar, procEditor, procedure0, procedure1, procedure2);
 
+        // loaded levels are analysed only once, even across sessions
+        try {
+            levelStore = LevelStore.open(Path.of(System.getProperty("user.home"), ".escapebot", "levels"));
+            AnalysisCache.getDefault().setStore(levelStore);
+        } catch (IOException e) {
+            warning("can't open level store: %s\n", e);
+        }
+
         initializeLogic(GameLevel.fromJson(new InputStreamReader(
                         Objects.requireNonNull(
                         getClass().getResourceAsStream("/gui/resources/resources/level/level0.json")))));
@@ -141,6 +163,16 @@ public class ShellController implements Initializable {
      */
     @FXML
     public void initializeLogic(GameLevel level) {
+        if (levelStore != null && level != null) {
+            final long hash = level.getBoard().getContentHash();
+            if (levelStore.isAnalyzed(hash)) debug("level %s already solved\n", level.getName("%016x".formatted(hash)));
+            // disk access stays off the FX thread: the level is stored and its analysis loaded in the background
+            levelStore.putAsync(level).exceptionally(error -> {
+                warning("can't store level: %s\n", error);
+                return null;
+            });
+            AnalysisCache.getDefault().preload(level.getBoard());
+        }
         setLevel(level);
         initializeLogic();
     }
@@ -196,9 +228,9 @@ public class ShellController implements Initializable {
         try {
             File saveFile = dialogChooseJson(System.getProperty("user.dir"));
             if (saveFile != null) {
-                try {
-                    initializeLogic(GameLevel.fromJson(new FileReader(saveFile)));
-                } catch (FileNotFoundException e) {
+                try (InputStream input = new FileInputStream(saveFile)) {
+                    initializeLogic(GameLevel.load(input));
+                } catch (IOException e) {
                     gui.panic(e);
                 }
             } else {
@@ -218,19 +250,14 @@ public class ShellController implements Initializable {
 
         var saveFile = fileChooser.showSaveDialog(currentGrid.getScene().getWindow());
         if (saveFile != null) {
-            try {
-                if (!saveFile.exists()) saveFile.createNewFile();
-
-                if (saveFile.canWrite()) {
-                    try (FileWriter writer = new FileWriter(saveFile)) {
-                        writer.write(level.toJson());
-                    }
+            // written in the background, the board of the level is a copy and doesn't change anymore
+            levelSaver.save(level, saveFile.toPath()).whenComplete((file, error) -> {
+                if (error != null) {
+                    Platform.runLater(() -> gui.panic(error instanceof Exception e ? e : new IOException(error)));
                 } else {
-                    Log.error("saveFile not writable (writable:%b, exists:%b)\n", saveFile.canWrite(), saveFile.exists());
+                    Log.debug("Level saved to %s\n", file);
                 }
-            } catch (IOException e) {
-                Log.error(e);
-            }
+            });
         } else {
             Log.warning("User didn't select a file. Level is not saved");
         }
@@ -251,11 +278,12 @@ public class ShellController implements Initializable {
     private void onCloseEditorMode() {
         debug("closeMapEditor called");
         var board = currentGrid.getBoard();
-        var analysis = board.analyze();
+        // the editor already knows unreachable fields, the full analysis only runs if there are none
+        List<Board.Problem> analysis = currentGrid instanceof EditorGrid editor ? editor.getUnreachable() : List.of();
+        if (analysis.isEmpty()) analysis = board.analyze();
         initializeLogic(new GameLevel(board, board.getDirectionOfBot()));
         if (!analysis.isEmpty()) {
-            new BoardProblemModal(new Board.Problem(Board.ProblemType.SOLUTION_TOO_BIG, FieldType.START, null))
-                    .show();
+            new BoardProblemModal(analysis.get(0)).show();
         }
     }
 
@@ -343,7 +371,9 @@ public class ShellController implements Initializable {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setInitialDirectory(new File(path));
             fileChooser.setTitle("Select Json");
-            fileChooser.setSelectedExtensionFilter(new FileChooser.ExtensionFilter("json", ".json"));
+            var levelFilter = new FileChooser.ExtensionFilter("level", "*.json", "*" + LevelBinaryFormat.EXTENSION);
+            fileChooser.getExtensionFilters().add(levelFilter);
+            fileChooser.setSelectedExtensionFilter(levelFilter);
 
             return fileChooser.showOpenDialog( paneStage.getScene().getWindow());
         } catch (Exception exception) {
@@ -1,17 +1,19 @@
 package gui.shell;
 
 import gui.FxUserInterface;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.*;
 import logic.board.GameLevel;
+import logic.board.LevelBinaryFormat;
+import logic.board.LevelCatalog;
+import logic.board.LevelPack;
 import logic.util.Log;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.InputStreamReader;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.jar.JarEntry;
@@ -23,6 +25,7 @@ import java.util.jar.JarFile;
 public class ShellMenuBar extends MenuBar {
     private static final String LEVEL_PATH = "gui/resources/resources/level";
     private final ToggleGroup selectedLevelItem = new ToggleGroup();
+    private final LevelCatalog catalog = new LevelCatalog();
 
     private final ObjectProperty<Consumer<GameLevel>> onChooseLevel = new SimpleObjectProperty<>(Log::debug);
     private final ObjectProperty<EventHandler<ActionEvent>> onLoadLevel = new SimpleObjectProperty<>();
@@ -36,7 +39,7 @@ public class ShellMenuBar extends MenuBar {
         var menuFile = new Menu("Level");
 
         var miChooseLevel = new Menu("Choose Level");
-        miChooseLevel.getItems().addAll(makeLevelChooserItems(LEVEL_PATH));
+        fillLevelChooser(miChooseLevel, LEVEL_PATH);
 
         var miLoadLevelFile = new MenuItem("Load Level File");
         miLoadLevelFile.onActionProperty().bind(onLoadLevel);
@@ -68,78 +71,88 @@ public class ShellMenuBar extends MenuBar {
 
     /**
      * This generates the level selection accessible through the MenuBar.
-     * It also generates the file readers for the level.
+     * Only the level files are listed here. Their metadata is scanned by the level catalog in the background
+     * and an item is added to the menu for every level found, so building the menu doesn't depend on
+     * the count of levels. A level is parsed when it is chosen.
      * @implNote There a non-trivial differences between running the program as a jar
      * and in the IDE. You have to use diffrent implementation and detect what scenario
      * is currently happening.
+     * @param menu Level Menu
      * @param levelPath path to the level directory
-     * @return Level Menu items
      */
-    private Collection<MenuItem> makeLevelChooserItems(String levelPath) {
-        var items = new ArrayList<MenuItem>();
+    private void fillLevelChooser(Menu menu, String levelPath) {
+        List<LevelCatalog.Source> sources = new ArrayList<>();
 
         try {
-            List<File> levelFiles = new ArrayList<>();
-            boolean notAJar = false;
-
-            try {
-                // first we use the jar method. We have to use the JarFile class to get a list of all files
-                // contained in the jar.
-                Iterator<JarEntry> dir = new JarFile(
-                        new File(ShellMenuBar.class.getProtectionDomain()
-                                .getCodeSource()
-                                .getLocation()
-                                .toURI()))
-                        .entries()
-                        .asIterator();
+            // first we use the jar method. We have to use the JarFile class to get a list of all files
+            // contained in the jar.
+            try (var jar = new JarFile(
+                    new File(ShellMenuBar.class.getProtectionDomain()
+                            .getCodeSource()
+                            .getLocation()
+                            .toURI()))) {
+                Iterator<JarEntry> dir = jar.entries().asIterator();
 
                 // Then we iterate over all files and search for the level files.
                 while (dir.hasNext()) {
                     JarEntry entry = dir.next();
                     Log.debug(entry);
                     // if we found a level, we add it to the list
-                    if (entry.getName().contains(levelPath) && entry.getName().contains(".json")) {
+                    if (entry.getName().contains(levelPath) && isLevelFile(entry.getName())) {
                         Log.debug("found level %s\n", entry);
-                        levelFiles.add(new File(entry.getName()));
+                        var path = "/" + entry.getName();
+                        sources.add(LevelCatalog.Source.of(new File(entry.getName()).getName(),
+                                () -> getClass().getResourceAsStream(path)));
                     }
                 }
-
-
-            } catch (Exception e) {
-                // if the above code fails we can assume that the program is currently not being executed
-                // as a jar, but probably in an IDE.
-                Log.warning("Program is probably not being executed as a jar. Switch to non jar method.");
-
-                notAJar = true;
-                // again we add the files of the level directory to the list.
-                File dir = new File(getClass().getResource("/" + levelPath).getPath());
-                levelFiles = new ArrayList<>(List.of(dir.listFiles()));
             }
+        } catch (Exception e) {
+            // if the above code fails we can assume that the program is currently not being executed
+            // as a jar, but probably in an IDE.
+            Log.warning("Program is probably not being executed as a jar. Switch to non jar method.");
+
+            // again we add the files of the level directory to the list.
+            File dir = new File(getClass().getResource("/" + levelPath).getPath());
+            for (File file : Objects.requireNonNull(dir.listFiles())) {
+                if (isLevelFile(file.getName())) sources.add(LevelCatalog.Source.of(file.toPath()));
+            }
+        }
 
-            Collections.sort(levelFiles);
-            for (File file : levelFiles) {
-                String fileName = file.getName().split("\\.")[0];
-
-                // Again we have to differentiate between jar and IDE mode.
-                GameLevel level = GameLevel.fromJson(notAJar
-                        ? new FileReader(file.getPath())
-                        : new InputStreamReader(
-                            getClass().getResourceAsStream("/" + file.getPath().replaceAll("\\\\", "/"))));
+        sources.sort(Comparator.comparing(LevelCatalog.Source::name));
+        catalog.scan(sources,
+                entry -> Platform.runLater(() -> menu.getItems().add(makeLevelItem(entry))),
+                Log::error);
+    }
 
-                var levelItem = new RadioMenuItem(level.getName(fileName));
-                levelItem.setToggleGroup(selectedLevelItem);
-                levelItem.setOnAction(actionEvent -> {
-                    onChooseLevel.get().accept(level);
-                    Log.debug("Level consumer fired for " + level.getName(fileName));
-                });
+    /**
+     * Is file a level or level pack?
+     * @param fileName name of file
+     * @return true, if file has the extension of a level or level pack
+     */
+    private static boolean isLevelFile(String fileName) {
+        return fileName.endsWith(".json")
+                || fileName.endsWith(LevelBinaryFormat.EXTENSION)
+                || fileName.endsWith(LevelPack.EXTENSION);
+    }
 
-                items.add(levelItem);
+    /**
+     * Generates the item of a level
+     * @param entry level of the catalog
+     * @return Level Menu item
+     */
+    private MenuItem makeLevelItem(LevelCatalog.Entry entry) {
+        String fileName = entry.source().split("\\.")[0];
+        var levelItem = new RadioMenuItem(entry.getName(entry.index() < 0 ? fileName : fileName + " " + (entry.index() + 1)));
+        levelItem.setToggleGroup(selectedLevelItem);
+        levelItem.setOnAction(actionEvent -> {
+            try {
+                onChooseLevel.get().accept(catalog.load(entry));
+                Log.debug("Level consumer fired for " + levelItem.getText());
+            } catch (Exception e) {
+                Log.error(e);
             }
-        } catch (Exception e) {
-            Log.error(e);
-        }
-
-        return items;
+        });
+        return levelItem;
     }
 
     /**
@@ -1,11 +1,19 @@
 package logic.action;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import logic.Direction;
 import logic.util.Vector;
 
+import java.io.IOException;
+
 /**
  * The type Action.
  */
+@JsonAdapter(Action.JsonAdapter.class)
 public class Action {
     /**
      * What action happened?
@@ -178,4 +186,84 @@ public class Action {
             return false;
         }
     }
+
+    /**
+     * Writes actions field by field without reflection, missing positions and directions are left out.
+     */
+    public static class JsonAdapter extends TypeAdapter<Action> {
+        /**
+         * Adapter of positions
+         */
+        private final Vector.JsonAdapter vectorAdapter = new Vector.JsonAdapter();
+        /**
+         * Adapter of directions
+         */
+        private final Direction.JsonAdapter directionAdapter = new Direction.JsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, Action value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("type").value(value.type.name());
+            if (value.position != null) {
+                out.name("position");
+                vectorAdapter.write(out, value.position);
+            }
+            if (value.destination != null) {
+                out.name("destination");
+                vectorAdapter.write(out, value.destination);
+            }
+            if (value.direction != null) {
+                out.name("direction");
+                directionAdapter.write(out, value.direction);
+            }
+            out.name("procedure").value(value.procedure);
+            out.name("instruction").value(value.instruction);
+            out.endObject();
+        }
+
+        @Override
+        public Action read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            ActionType type = null;
+            Vector position = null;
+            Vector destination = null;
+            Direction direction = null;
+            int procedure = -1;
+            int instruction = -1;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (key) {
+                    case "type" -> type = ActionType.valueOf(in.nextString());
+                    case "position" -> position = vectorAdapter.read(in);
+                    case "destination" -> destination = vectorAdapter.read(in);
+                    case "direction" -> direction = directionAdapter.read(in);
+                    case "procedure" -> procedure = in.nextInt();
+                    case "instruction" -> instruction = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            var action = new Action(type, position, direction, destination);
+            action.setProcedure(procedure);
+            action.setInstruction(instruction);
+            return action;
+        }
+    }
 }
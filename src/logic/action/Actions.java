@@ -1,7 +1,15 @@
 package logic.action;
 
-import com.google.gson.Gson;
-
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -10,6 +18,7 @@ import java.util.List;
 /**
  * Helper class for easier handling and creation of Actions
  */
+@JsonAdapter(Actions.JsonAdapter.class)
 public class Actions implements Collection<Action> {
     /**
      * Actual list of actions
@@ -163,6 +172,64 @@ public class Actions implements Collection<Action> {
 
     @Override
     public String toString() {
-        return new Gson().toJson(actionList);
+        var json = new StringWriter();
+        try {
+            writeJson(json);
+        } catch (IOException e) {
+            // a StringWriter doesn't fail
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Streams the actions as json array, formatted like {@link #toString()}
+     * @param writer target, not closed
+     * @throws IOException if writing fails
+     */
+    public void writeJson(Writer writer) throws IOException {
+        var out = new JsonWriter(writer);
+        new JsonAdapter().write(out, this);
+        out.flush();
+    }
+
+    /**
+     * Writes actions as json array, action by action
+     */
+    public static class JsonAdapter extends TypeAdapter<Actions> {
+        /**
+         * Adapter of single actions
+         */
+        private final Action.JsonAdapter actionAdapter = new Action.JsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, Actions value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginArray();
+            for (Action action : value.actionList) {
+                actionAdapter.write(out, action);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public Actions read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            var actions = new Actions();
+            in.beginArray();
+            while (in.hasNext()) {
+                actions.actionList.add(actionAdapter.read(in));
+            }
+            in.endArray();
+            return actions;
+        }
     }
 }
@@ -0,0 +1,222 @@
+package logic.board;
+
+import logic.procedure.Procedure;
+import logic.util.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded cache of board analyses, keyed by board content.
+ * Analysing a board runs the flood fill, the path finder and the optimizer; analysing an unchanged board
+ * again only costs a hash lookup. Least recently used analyses are evicted once the capacity is reached.
+ * <p>
+ * Boards are keyed by {@link BoardSnapshot}, so later changes of an analysed board don't affect the cache.
+ * Results are copied on the way out, callers can modify them freely. This class is thread-safe.
+ * <p>
+ * With a {@link LevelStore} new analyses are added to the store in the background, and {@link #preload(Board)}
+ * loads a stored analysis in the background, so a board is only analysed once across sessions.
+ * Lookups never touch the disk, {@link #analyze(Board)} can be called on the UI thread.
+ */
+public final class AnalysisCache {
+    /**
+     * Capacity of the default cache
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Cache used by {@link Board#analyze()} and {@link Board#solve()}
+     */
+    private static final AnalysisCache DEFAULT = new AnalysisCache(DEFAULT_CAPACITY);
+
+    /**
+     * Result of an analysis
+     * @param problems problems of board, empty if board is valid
+     * @param solution 3 procedures solving the board, empty if board can't be solved
+     */
+    public record Analysis(List<Board.Problem> problems, List<Procedure> solution) {}
+
+    /**
+     * analyses in access order, least recently used first
+     */
+    private final LinkedHashMap<BoardSnapshot, Analysis> analyses;
+    /**
+     * maximum count of analyses
+     */
+    private final int capacity;
+    /**
+     * persistent analyses, may be null
+     */
+    private volatile LevelStore store;
+    /**
+     * count of lookups answered by the cache
+     */
+    private long hits;
+    /**
+     * count of lookups not answered by the cache
+     */
+    private long misses;
+
+    /**
+     * Instantiates a new, empty cache
+     * @param capacity maximum count of cached analyses
+     */
+    public AnalysisCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+
+        this.capacity = capacity;
+        this.analyses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BoardSnapshot, Analysis> eldest) {
+                return size() > AnalysisCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Cache used by {@link Board#analyze()} and {@link Board#solve()}
+     * @return default cache
+     */
+    public static AnalysisCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Sets the store analyses are added to and preloaded from
+     * @param store store, null to analyse without store
+     */
+    public void setStore(LevelStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns the analysis of board, analyses board only if it isn't cached yet
+     * @param board board
+     * @return copy of analysis
+     */
+    public Analysis analyze(Board board) {
+        final BoardSnapshot key = board.snapshot();
+
+        Analysis analysis;
+        synchronized (this) {
+            analysis = analyses.get(key);
+            if (analysis != null) hits++;
+            else misses++;
+        }
+
+        if (analysis == null) {
+            // analysed outside the lock, other boards can be looked up meanwhile
+            final Board analysed = key.toBoard();
+            analysis = freeze(analysed.analyzeUncached());
+            synchronized (this) {
+                analyses.put(key, analysis);
+            }
+
+            final LevelStore store = this.store;
+            if (store != null) {
+                store.putAnalysisAsync(analysed, analysis).exceptionally(error -> {
+                    Log.warning("Can't store analysis in %s: %s\n", store, error);
+                    return null;
+                });
+            }
+        }
+
+        return copy(analysis);
+    }
+
+    /**
+     * Loads the stored analysis of a board into the cache in the background, a later {@link #analyze(Board)}
+     * of the board is answered from memory. Does nothing without store or if the board isn't stored.
+     * Failures of the store are logged.
+     *
+     * @param board board, later changes don't affect the preloaded analysis
+     * @return completes once the analysis is loaded or found missing
+     */
+    public CompletableFuture<Void> preload(Board board) {
+        final LevelStore store = this.store;
+        if (store == null) return CompletableFuture.completedFuture(null);
+
+        final BoardSnapshot key = board.snapshot();
+        return store.findAnalysisAsync(key.toBoard())
+                .thenAccept(analysis -> {
+                    if (analysis == null) return;
+                    synchronized (this) {
+                        analyses.putIfAbsent(key, freeze(analysis));
+                    }
+                })
+                .exceptionally(error -> {
+                    Log.warning("Can't read analysis from %s: %s\n", store, error);
+                    return null;
+                });
+    }
+
+    /**
+     * Removes all analyses, statistics are kept
+     */
+    public synchronized void clear() {
+        analyses.clear();
+    }
+
+    /**
+     * Count of cached analyses
+     * @return count of analyses
+     */
+    public synchronized int size() {
+        return analyses.size();
+    }
+
+    /**
+     * Count of lookups answered by the cache
+     * @return count of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Count of lookups not answered by the cache
+     * @return count of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Share of lookups answered by the cache
+     * @return hit rate between 0 and 1, 0 if nothing was looked up yet
+     */
+    public synchronized double getHitRate() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AnalysisCache[size=%d, capacity=%d, hits=%d, misses=%d]".formatted(analyses.size(), capacity, hits, misses);
+    }
+
+    /**
+     * Makes an analysis immutable before it is cached
+     * @param analysis analysis
+     * @return immutable analysis
+     */
+    private static Analysis freeze(Analysis analysis) {
+        return new Analysis(List.copyOf(analysis.problems()), List.copyOf(analysis.solution()));
+    }
+
+    /**
+     * Copies a cached analysis, so callers can't change the cache
+     * @param analysis cached analysis
+     * @return mutable copy
+     */
+    private static Analysis copy(Analysis analysis) {
+        List<Procedure> solution = new ArrayList<>();
+        for (Procedure procedure : analysis.solution()) {
+            solution.add(new Procedure(procedure.getId(), procedure));
+        }
+        return new Analysis(new ArrayList<>(analysis.problems()), solution);
+    }
+}
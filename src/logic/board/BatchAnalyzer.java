@@ -0,0 +1,328 @@
+package logic.board;
+
+import logic.procedure.Procedure;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Parses and analyses many levels in parallel, e.g. all levels of a directory.
+ * At most {@code concurrency} levels are analysed at the same time, by as many threads. A level that isn't done
+ * after the timeout is reported as {@link Status#TIMED_OUT} and its analysis is interrupted, so a single
+ * pathological board can't stall the run. The slot of an interrupted analysis is given to the next level as soon as
+ * the analysis noticed the interrupt, the count of running analyses never exceeds {@code concurrency}.
+ * <p>
+ * Levels are analysed without {@link AnalysisCache}, a batch run would only evict the analyses of the game.
+ */
+public final class BatchAnalyzer implements AutoCloseable {
+    /**
+     * Outcome of the analysis of a level
+     */
+    public enum Status {
+        /**
+         * Level has no problems
+         */
+        VALID,
+        /**
+         * Level was analysed and has problems
+         */
+        INVALID,
+        /**
+         * Level couldn't be read, parsed or analysed
+         */
+        FAILED,
+        /**
+         * Analysis didn't finish in time
+         */
+        TIMED_OUT
+    }
+
+    /**
+     * Source of a level
+     * @param name name of level, e.g. its file name
+     * @param level reads the level
+     */
+    public record Source(String name, LevelSupplier level) {
+        /**
+         * Source of a level json
+         * @param name name of level
+         * @param reader opens the json of the level
+         */
+        public Source(String name, ReaderSupplier reader) {
+            this(name, () -> {
+                try (Reader in = reader.open()) {
+                    return GameLevel.fromJson(in);
+                }
+            });
+        }
+
+        /**
+         * Source of a level file in json or binary format
+         * @param file level file
+         * @return source
+         */
+        public static Source of(Path file) {
+            return new Source(file.getFileName().toString(), () -> {
+                try (InputStream in = Files.newInputStream(file)) {
+                    return GameLevel.load(in);
+                }
+            });
+        }
+
+        /**
+         * Source of a level json
+         * @param name name of level
+         * @param json json of level
+         * @return source
+         */
+        public static Source of(String name, String json) {
+            return new Source(name, (ReaderSupplier) () -> new StringReader(json));
+        }
+    }
+
+    /**
+     * Reads a level
+     */
+    @FunctionalInterface
+    public interface LevelSupplier {
+        /**
+         * Reads and parses the level
+         * @return level
+         * @throws IOException if level can't be read
+         */
+        GameLevel load() throws IOException;
+    }
+
+    /**
+     * Opens a reader
+     */
+    @FunctionalInterface
+    public interface ReaderSupplier {
+        /**
+         * Opens a new reader
+         * @return reader
+         * @throws IOException if reader can't be opened
+         */
+        Reader open() throws IOException;
+    }
+
+    /**
+     * Result of the analysis of a level
+     * @param name name of level
+     * @param status outcome of the analysis
+     * @param problems problems of level, empty if level isn't {@link Status#INVALID}
+     * @param solutionSizes instructions per procedure of the solution, empty if level can't be solved
+     * @param parseTime time spent reading and parsing the level
+     * @param analysisTime time spent analysing the level
+     * @param error cause of {@link Status#FAILED}, errors of the analysis included, null otherwise
+     */
+    public record Result(String name,
+                         Status status,
+                         List<Board.Problem> problems,
+                         List<Integer> solutionSizes,
+                         Duration parseTime,
+                         Duration analysisTime,
+                         Throwable error) {}
+
+    /**
+     * maximum count of levels analysed at the same time
+     */
+    private final int concurrency;
+    /**
+     * time a level may take before it is reported as timed out
+     */
+    private final Duration timeout;
+    /**
+     * runs the analyses, one thread per slot. Threads never keep the application alive.
+     */
+    private final ExecutorService workers;
+    /**
+     * times out levels, a finished level cancels and removes its timeout, so it isn't retained until the timeout
+     */
+    private final ScheduledThreadPoolExecutor timeouts;
+
+    /**
+     * Instantiates a new batch analyzer
+     * @param concurrency maximum count of levels analysed at the same time
+     * @param timeout time a level may take before it is reported as timed out
+     */
+    public BatchAnalyzer(int concurrency, Duration timeout) {
+        if (concurrency < 1) throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        if (timeout.isNegative() || timeout.isZero()) throw new IllegalArgumentException("timeout must be positive: " + timeout);
+
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+        this.workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            var thread = new Thread(runnable, "batch-analyzer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "batch-analyzer-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeouts.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Analyses every level file (*.json and *{@value LevelBinaryFormat#EXTENSION}) of a directory, ordered by file name
+     * @param directory level directory
+     * @return results in order of file names
+     * @throws IOException if directory can't be listed
+     * @throws InterruptedException if interrupted while waiting for results
+     */
+    public List<Result> analyze(Path directory) throws IOException, InterruptedException {
+        List<Source> sources;
+        try (Stream<Path> files = Files.list(directory)) {
+            sources = files
+                    .filter(file -> file.getFileName().toString().endsWith(".json")
+                            || file.getFileName().toString().endsWith(LevelBinaryFormat.EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .map(Source::of)
+                    .toList();
+        }
+
+        return analyze(sources);
+    }
+
+    /**
+     * Analyses levels
+     * @param sources sources of levels
+     * @return results in order of sources
+     * @throws InterruptedException if interrupted while waiting for results
+     */
+    public List<Result> analyze(List<Source> sources) throws InterruptedException {
+        final Semaphore slots = new Semaphore(concurrency);
+        final List<CompletableFuture<Result>> pending = new ArrayList<>();
+
+        for (Source source : sources) {
+            slots.acquire();
+            final var result = new CompletableFuture<Result>();
+            // whoever sets started owns the slot: the analysis until it ends, or the timeout if it never started
+            final var started = new AtomicBoolean();
+            final var timer = new AtomicReference<ScheduledFuture<?>>();
+            final Future<?> task;
+            try {
+                task = workers.submit(() -> {
+                    if (!started.compareAndSet(false, true)) return;
+                    Result analysed = null;
+                    try {
+                        analysed = analyze(source);
+                    } finally {
+                        // cancelled before the result completes, a finished level is never retained by its timeout
+                        var scheduled = timer.get();
+                        if (scheduled != null) scheduled.cancel(false);
+                        slots.release();
+                    }
+                    result.complete(analysed);
+                });
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                throw e;
+            }
+
+            timer.set(timeouts.schedule(() -> {
+                if (!result.complete(timedOut(source))) return;
+                if (started.compareAndSet(false, true)) slots.release();
+                else task.cancel(true);
+            }, timeout.toNanos(), TimeUnit.NANOSECONDS));
+            // the level may have finished before its timeout was scheduled
+            if (result.isDone()) timer.get().cancel(false);
+            pending.add(result);
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (CompletableFuture<Result> result : pending) {
+            results.add(result.join());
+        }
+        return results;
+    }
+
+    /**
+     * Stops all threads. Running analyses are interrupted.
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        timeouts.shutdownNow();
+    }
+
+    /**
+     * Count of timeouts that are scheduled, but neither fired nor cancelled yet
+     * @return count of scheduled timeouts
+     */
+    int scheduledTimeouts() {
+        return timeouts.getQueue().size();
+    }
+
+    /**
+     * Parses and analyses a level
+     * @param source source of level
+     * @return result
+     */
+    private Result analyze(Source source) {
+        final long start = System.nanoTime();
+
+        GameLevel level;
+        try {
+            level = source.level().load();
+        } catch (Throwable e) {
+            return new Result(source.name(), Status.FAILED, List.of(), List.of(), since(start), Duration.ZERO, e);
+        }
+        final long parsed = System.nanoTime();
+
+        try {
+            var analysis = level.getBoard().analyzeUncached();
+            List<Integer> solutionSizes = analysis.solution().stream().map(Procedure::size).toList();
+            return new Result(source.name(),
+                    analysis.problems().isEmpty() ? Status.VALID : Status.INVALID,
+                    List.copyOf(analysis.problems()),
+                    solutionSizes,
+                    Duration.ofNanos(parsed - start),
+                    since(parsed),
+                    null);
+        } catch (Throwable e) {
+            // errors too, e.g. a stack overflow of a pathological board, would otherwise look like a timeout
+            return new Result(source.name(), Status.FAILED, List.of(), List.of(), Duration.ofNanos(parsed - start), since(parsed), e);
+        }
+    }
+
+    /**
+     * Result of a level that didn't finish in time
+     * @param source source of level
+     * @return result
+     */
+    private Result timedOut(Source source) {
+        return new Result(source.name(), Status.TIMED_OUT, List.of(), List.of(), Duration.ZERO, timeout, null);
+    }
+
+    /**
+     * Time passed since start
+     * @param start start in nanoseconds, see {@link System#nanoTime()}
+     * @return duration
+     */
+    private static Duration since(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
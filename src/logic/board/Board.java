@@ -1,21 +1,27 @@
 package logic.board;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.FormattingStyle;
 import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import logic.Direction;
 import logic.board.graph.PathFinder;
+import logic.exception.UnreachableFieldException;
 import logic.exception.validation.MissingFieldException;
+import logic.exception.validation.UnexpectedTypeException;
+import logic.exception.validation.ValidationException;
 import logic.procedure.Procedure;
 import logic.util.Vector;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
 
 /**
@@ -56,9 +62,28 @@ public class Board {
     public record Problem(ProblemType problemType, FieldType fieldType, Vector position){}
 
     /**
-     * Internal representation of board
+     * Cached values of {@link FieldType}, used to decode the packed cells
      */
-    private final FieldType[][] fields;
+    private static final FieldType[] FIELD_TYPES = FieldType.values();
+
+    /**
+     * Internal representation of board. Every field holds the ordinal of its {@link FieldType},
+     * tiles are shared with copies of this board until they are written.
+     */
+    private final FieldStorage fields;
+    /**
+     * Counts and positions of field types, updated on every change of fields.
+     * Cell index of a field is y * width + x.
+     */
+    private FieldIndex index;
+    /**
+     * true, if index is shared with a copy or snapshot of this board and has to be copied before a change
+     */
+    private boolean indexShared;
+    /**
+     * Zobrist hash of shape, fields, position and direction of bot, updated on every change
+     */
+    private long hash;
     /**
      * The Height. Measured in vertical cells.
      */
@@ -78,17 +103,46 @@ public class Board {
 
     /**
      * Instantiates a new Board.
+     * The width of the board is the length of the first row. Missing cells of shorter rows
+     * are filled with {@link FieldType#WALL}, cells exceeding the width are ignored.
      *
      * @param directionOfBot the direction of bot
      * @param fields         the fields
      */
     public Board(Direction directionOfBot, FieldType[][] fields) {
+        this(directionOfBot, pack(fields));
+    }
+
+    /**
+     * Instantiates a new Board from packed fields.
+     *
+     * @param directionOfBot the direction of bot
+     * @param fields         packed fields, owned by this board
+     */
+    Board(Direction directionOfBot, FieldStorage fields) {
         this.fields = fields;
-        this.positionOfBot = this.getStartPosition();
-        this.directionOfBot = directionOfBot; //DEFAULT VALUE
+        this.height = fields.getHeight();
+        this.width = fields.getWidth();
+        this.hash = Zobrist.shape(width, height);
+
+        this.index = new FieldIndex();
+        for (Tile tile : tiles()) {
+            final boolean counted = tile.isUniform() && !index.isTracked(tile.getUniformType());
+            if (counted) index.add(tile.getUniformType(), tile.getWidth() * tile.getHeight());
+            // walls don't change the hash
+            if (tile.getUniformType() == FieldType.WALL) continue;
+
+            for (int y = tile.getY(); y < tile.getY() + tile.getHeight(); y++) {
+                for (int x = tile.getX(); x < tile.getX() + tile.getWidth(); x++) {
+                    final int cell = y * width + x;
+                    final FieldType fieldType = tile.get(x, y);
+                    if (!counted) index.add(cell, fieldType);
+                    hash ^= Zobrist.field(cell, fieldType);
+                }
+            }
+        }
 
-        this.height = fields.length;
-        this.width = fields.length < 1 ? 0 : fields[0].length;
+        setBot(this.getStartPosition(), directionOfBot); //DEFAULT VALUE
     }
 
     /**
@@ -105,11 +159,12 @@ public class Board {
      * @param level the level
      */
     public Board(GameLevel level) {
-        this(level.getStartBotDirection(), level.getBoard().fields);
+        this(level.getBoard());
     }
 
     /**
-     * Copy Constructor.
+     * Copy Constructor. The copy shares all fields with board until one of them changes (copy-on-write),
+     * so copying costs O(1).
      *
      * @param board board that should be copied.
      */
@@ -120,11 +175,68 @@ public class Board {
         this.width = board.width;
         this.positionOfBot = board.positionOfBot;
         this.directionOfBot = board.directionOfBot;
-        // deep copy field
-        this.fields = Arrays
-                .stream(board.fields)
-                .map(FieldType[]::clone)
-                .toArray(FieldType[][]::new);
+        this.fields = board.fields.share();
+        this.index = board.index;
+        this.indexShared = true;
+        this.hash = board.hash;
+        board.indexShared = true;
+    }
+
+    /**
+     * Instantiates a new Board from a snapshot. Shares all fields with the snapshot.
+     *
+     * @param snapshot snapshot of a board
+     * @param fields   storage shared with the snapshot
+     * @param index    index shared with the snapshot
+     */
+    Board(BoardSnapshot snapshot, FieldStorage fields, FieldIndex index) {
+        this.height = fields.getHeight();
+        this.width = fields.getWidth();
+        this.positionOfBot = snapshot.getPositionOfBot();
+        this.directionOfBot = snapshot.getDirectionOfBot();
+        this.fields = fields;
+        this.index = index;
+        this.indexShared = true;
+        this.hash = snapshot.getHash();
+    }
+
+    /**
+     * Takes an immutable snapshot of this board in O(1).
+     * Snapshot and board share all fields, later changes of this board are not visible in the snapshot.
+     *
+     * @return snapshot of current state
+     */
+    public BoardSnapshot snapshot() {
+        indexShared = true;
+        return new BoardSnapshot(fields.share(), index, positionOfBot, directionOfBot, hash);
+    }
+
+    /**
+     * Iterates the tiles of this board row by row. Tiles are views, they show later changes of this board.
+     * Uniform tiles let callers skip large regions of a single field type.
+     *
+     * @return tiles of board
+     */
+    public Iterable<Tile> tiles() {
+        final int tilesX = fields.getTilesX();
+        final int tileCount = tilesX * fields.getTilesY();
+
+        return () -> new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < tileCount;
+            }
+
+            @Override
+            public Tile next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                var tile = new Tile(fields, next % tilesX, next / tilesX);
+                next++;
+                return tile;
+            }
+        };
     }
 
     /**
@@ -133,15 +245,10 @@ public class Board {
      * @return position of first field with fieldType, null if none was found
      */
     public Vector positionOf(FieldType fieldType) {
-        for (int y = 0; y < fields.length; y++) {
-            for (int x = 0; x < fields[y].length; x++) {
-                if (fields[y][x] == fieldType) {
-                    return new Vector(x, y);
-                }
-            }
-        }
+        if (fieldType == null || index.count(fieldType) == 0) return null;
+        if (index.isTracked(fieldType)) return positionOf(index.first(fieldType));
 
-        return null;
+        return positionOf(fields.find((byte) fieldType.ordinal(), 0));
     }
 
     /**
@@ -151,13 +258,17 @@ public class Board {
      */
     public List<Vector> positionsOf(FieldType fieldType) {
         List<Vector> positions = new ArrayList<>();
-
-        for (int y = 0; y < fields.length; y++) {
-            for (int x = 0; x < fields[y].length; x++) {
-                if (fields[y][x] == fieldType) {
-                    positions.add(new Vector(x, y));
-                }
+        if (fieldType == null || index.count(fieldType) == 0) return positions;
+        if (index.isTracked(fieldType)) {
+            for (int cell : index.cells(fieldType)) {
+                positions.add(positionOf(cell));
             }
+            return positions;
+        }
+
+        final byte target = (byte) fieldType.ordinal();
+        for (int cell = fields.find(target, 0); cell >= 0; cell = fields.find(target, cell + 1)) {
+            positions.add(positionOf(cell));
         }
 
         return positions;
@@ -169,17 +280,7 @@ public class Board {
      * @return count of field
      */
     public int count(FieldType fieldType) {
-        int count = 0;
-
-        for (FieldType[] row : fields) {
-            for (FieldType cell : row) {
-                if (cell == fieldType) {
-                    count++;
-                }
-            }
-        }
-
-        return count;
+        return fieldType == null ? 0 : index.count(fieldType);
     }
 
     /**
@@ -209,17 +310,30 @@ public class Board {
         if (countOfStart > 1) problems.add(new Problem(ProblemType.TOO_MANY, FieldType.START, null));
 
         if (canBeFlooded) {
-            // flooding board from bot start position to "remove" all reachable fields
-            var clone = new Board(this);
-            Board.flood(clone, clone.getStartPosition());
+            // all fields reachable from bot start position
+            problems.addAll(findUnreachable(Reachability.of(this, getStartPosition())));
+        }
 
-            // after flood, exit shouldn't exist. If it does, it is not reachable
-            var exitPos = clone.positionOf(FieldType.DOOR);
-            if (exitPos != null) problems.add(new Problem(ProblemType.NOT_REACHABLE, FieldType.DOOR, exitPos));
+        return problems;
+    }
+
+    /**
+     * Finds exits and coins that can't be reached
+     * @param reachability reachability of this board from start position
+     * @return list of {@link ProblemType#NOT_REACHABLE} problems
+     */
+    List<Problem> findUnreachable(Reachability reachability) {
+        List<Problem> problems = new ArrayList<>();
 
-            // after flood, there should be no coins left, if they are, they're not reachable
-            var coinPos = clone.positionsOf(FieldType.COIN);
-            for (Vector position : coinPos) {
+        // the first exit that can't be reached is reported
+        positionsOf(FieldType.DOOR).stream()
+                .filter(position -> !reachability.isReachable(position))
+                .findFirst()
+                .ifPresent(position -> problems.add(new Problem(ProblemType.NOT_REACHABLE, FieldType.DOOR, position)));
+
+        // every coin has to be reachable
+        for (Vector position : positionsOf(FieldType.COIN)) {
+            if (!reachability.isReachable(position)) {
                 problems.add(new Problem(ProblemType.NOT_REACHABLE, FieldType.COIN, position));
             }
         }
@@ -232,10 +346,26 @@ public class Board {
      * @return analysis with result and instructions of problems
      */
     public List<Problem> analyze() {
+        return AnalysisCache.getDefault().analyze(this).problems();
+    }
+
+    /**
+     * Analyses board without looking it up in {@link AnalysisCache}.
+     * Finds problems and, if there are none, solves a copy of this board.
+     *
+     * @return problems and solution of board
+     */
+    AnalysisCache.Analysis analyzeUncached() {
         List<Problem> problems = findProblems();
+        List<Procedure> solution = List.of();
 
         if (problems.isEmpty()) {
-            List<Procedure> solution = new Board(this).solve();
+            try {
+                solution = new Board(this).solveUncached();
+            } catch (UnreachableFieldException e) {
+                // reachable by the flood fill, but no program gets there, e.g. only by jumping onto it
+                problems.add(new Problem(ProblemType.NOT_REACHABLE, e.getFieldType(), e.getPosition()));
+            }
 
             if ((solution.size() >= 1 && solution.get(0).size() > 12)
                 || (solution.size() >= 2 && solution.get(1).size() > 8)
@@ -244,7 +374,7 @@ public class Board {
             }
         }
 
-        return problems;
+        return new AnalysisCache.Analysis(problems, solution);
     }
 
     /**
@@ -257,19 +387,22 @@ public class Board {
     }
 
     /**
-     * Flooding all fields reachable from startPosition
-     * @param board board to flood
-     * @param startPosition position flooding starts from
+     * Solves board and returns 3 procedures with solution.
+     * Solutions are cached, see {@link AnalysisCache}; the board itself isn't changed.
+     * @return 3 Procedures
      */
-    private static void flood(Board board, Vector startPosition) {
-        floodFill(startPosition.X(), startPosition.Y(), board.fields);
+    public List<Procedure> solve() {
+        var solution = AnalysisCache.getDefault().analyze(this).solution();
+        if (solution.isEmpty()) throw new IllegalStateException("Board is not isSolvable");
+
+        return solution;
     }
 
     /**
-     * Solves board and returns 3 procedures with solution
+     * Solves board without looking it up in {@link AnalysisCache}.
      * @return 3 Procedures
      */
-    public List<Procedure> solve() {
+    private List<Procedure> solveUncached() {
         if (!hasProblems()) throw new IllegalStateException("Board is not isSolvable");
         final int procCount = 3;
 
@@ -288,32 +421,6 @@ public class Board {
         return finalSol;
     }
 
-    /**
-     * Recursive functions for board flooding.
-     * @param x X coordinate
-     * @param y Y coordinate
-     * @param fields two dimensional array of field types
-     * @return true, if door was found
-     */
-    private static boolean floodFill(int x, int y, FieldType[][] fields) {
-        FieldType f = get(fields, x, y);
-        if (f == null)
-            return false;
-        else if (f.IS_WALKABLE) {
-            fields[y][x] = null;
-            return floodFill(x + 1, y, fields)
-                    || floodFill(x - 1, y, fields)
-                    || floodFill(x, y + 1, fields)
-                    || floodFill(x, y - 1, fields)
-                    || (FieldType.isJumpable(get(fields, x+1, y)) && floodFill(x + 2, y, fields))
-                    || (FieldType.isJumpable(get(fields, x-1, y)) && floodFill(x - 2, y, fields))
-                    || (FieldType.isJumpable(get(fields, x, y+1)) && floodFill(x, y + 2, fields))
-                    || (FieldType.isJumpable(get(fields, x, y-1)) && floodFill(x, y - 2, fields));
-        } else {
-            return false;
-        }
-    }
-
     /**
      * Get position of start in board.
      *
@@ -383,24 +490,9 @@ public class Board {
      * @return {@code FieldType} at point in field (if x, y is out of bounds, returns {@link FieldType#WALL})
      */
     public FieldType get(int x, int y) {
-        return get(this.fields, x, y);
-    }
-
-    /**
-     * safe 2d array set method
-     *
-     * @param fields    2d array of fieldTypes
-     * @param x         x coordinate
-     * @param y         y coordinate
-     * @param fieldType FieldType
-     * @return true, if method was successful
-     */
-    static boolean set(FieldType[][] fields, int x, int y, FieldType fieldType) {
-        if (y >= fields.length || y < 0) return false;
-        if (x >= fields[y].length || x < 0) return false;
-
-        fields[y][x] = fieldType;
-        return true;
+        if (y >= height || y < 0) return FieldType.WALL;
+        if (x >= width || x < 0) return FieldType.WALL;
+        return FIELD_TYPES[fields.get(x, y)];
     }
 
     /**
@@ -422,7 +514,22 @@ public class Board {
      * @return the boolean
      */
     public boolean set(int x, int y, FieldType type) {
-        return set(this.fields, x, y, type);
+        if (y >= height || y < 0) return false;
+        if (x >= width || x < 0) return false;
+        assert type != null;
+
+        if (indexShared) {
+            index = new FieldIndex(index);
+            indexShared = false;
+        }
+
+        final int cell = y * width + x;
+        final FieldType previous = FIELD_TYPES[fields.get(x, y)];
+        index.remove(cell, previous);
+        fields.set(x, y, (byte) type.ordinal());
+        index.add(cell, type);
+        hash ^= Zobrist.field(cell, previous) ^ Zobrist.field(cell, type);
+        return true;
     }
 
     /**
@@ -431,7 +538,7 @@ public class Board {
      * @param direction the direction
      */
     public void setDirectionOfBot(Direction direction) {
-        this.directionOfBot = direction;
+        this.setBot(positionOfBot, direction);
     }
 
     /**
@@ -450,8 +557,10 @@ public class Board {
      * @param direction the direction
      */
     public void setBot(Vector position, Direction direction) {
+        hash ^= Zobrist.position(positionOfBot) ^ Zobrist.direction(directionOfBot);
         this.positionOfBot = position;
         this.directionOfBot = direction;
+        hash ^= Zobrist.position(positionOfBot) ^ Zobrist.direction(directionOfBot);
     }
 
     /**
@@ -479,35 +588,50 @@ public class Board {
      * @return true, if contained
      */
     public boolean contains(Object obj) {
-        return contains(toArray(), obj);
+        return obj instanceof FieldType fieldType
+                && index.count(fieldType) > 0;
     }
 
     /**
-     * static helper function for contains. Static so it can be used in isSolvable on cloned fields
+     * Zobrist hash of shape, fields, position and direction of bot. Maintained on every change, so it costs O(1).
+     * Equal boards have equal hashes.
      *
-     * @param fields board as array
-     * @param obj to check if contained
-     * @return true, if obj is contained
-     */
-    private static boolean contains(FieldType[][] fields, Object obj) {
-        if (!(obj instanceof FieldType fieldType)) return false;
-
-        boolean contains = false;
-        for (int y = 0; y < fields.length && !contains; y++) {
-            for (int x = 0; x < fields[y].length && !contains; x++) {
-                if (fields[y][x] == fieldType) {
-                    contains = true;
-                }
-            }
-        }
+     * @return 64 bit hash of board state
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Zobrist hash of shape, fields and direction of bot, with the bot on start, like a loaded level.
+     * Boards that only differ in the position of their bot have the same content hash. O(1).
+     *
+     * @return 64 bit hash of board content
+     */
+    public long getContentHash() {
+        return hash ^ Zobrist.position(positionOfBot) ^ Zobrist.position(getStartPosition());
+    }
 
-        return contains;
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
     }
 
+    /**
+     * Boards are equal, if their fields, the position and the direction of their bots are equal.
+     * Boards with different hashes are rejected without comparing their fields.
+     *
+     * @param obj other board
+     * @return true, if equal
+     */
     @Override
     public boolean equals(Object obj) {
+        if (obj == this) return true;
         return obj instanceof Board board
-                && Arrays.deepEquals(board.fields, this.fields);
+                && board.hash == this.hash
+                && Objects.equals(board.positionOfBot, this.positionOfBot)
+                && board.directionOfBot == this.directionOfBot
+                && board.fields.contentEquals(this.fields);
     }
 
     /**
@@ -516,18 +640,59 @@ public class Board {
      * @return 2D array representation of board.
      */
     public FieldType[][] toArray() {
-        return Arrays.stream(fields)
-                .map(FieldType[]::clone)
-                .toArray(FieldType[][]::new);
+        var fields = new FieldType[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                fields[y][x] = FIELD_TYPES[this.fields.get(x, y)];
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * Converts cell index to position
+     * @param cell cell index (y * width + x)
+     * @return position of cell, null if cell index is negative
+     */
+    private Vector positionOf(int cell) {
+        return cell < 0 ? null : new Vector(cell % width, cell / width);
+    }
+
+    /**
+     * Packs 2D array of field types into a field storage
+     * @param fields 2D array of field types
+     * @return packed fields
+     */
+    private static FieldStorage pack(FieldType[][] fields) {
+        final int height = fields.length;
+        final int width = height < 1 ? 0 : fields[0].length;
+
+        var storage = new FieldStorage(width, height);
+        for (int y = 0; y < height; y++) {
+            var row = fields[y];
+            for (int x = 0; x < width && x < row.length; x++) {
+                storage.set(x, y, (byte) row[x].ordinal());
+            }
+        }
+        storage.compact();
+
+        return storage;
     }
 
     @Override
     public String toString() {
-        return "Board:\n" + new GsonBuilder()
-                .setPrettyPrinting().create()
-                .toJson(this)
-                .replaceAll("],", "],\n ")
-                .replaceAll(",", ", ");
+        var text = new StringBuilder("Board:\n[");
+        for (int y = 0; y < height; y++) {
+            if (y > 0) text.append(", \n ");
+            text.append('[');
+            for (int x = 0; x < width; x++) {
+                if (x > 0) text.append(", ");
+                text.append(fields.get(x, y));
+            }
+            text.append(']');
+        }
+        return text.append(']').toString();
     }
 
     /**
@@ -556,18 +721,88 @@ public class Board {
     public static class JsonAdapter extends TypeAdapter<Board> {
         @Override
         public void write(JsonWriter out, Board value) throws IOException {
-            out.jsonValue(new Gson().toJson(value.fields));
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginArray();
+            // rows stay on a single line, also if out is pretty printing
+            final FormattingStyle style = out.getFormattingStyle();
+            out.setFormattingStyle(FormattingStyle.COMPACT);
+            for (int y = 0; y < value.height; y++) {
+                out.beginArray();
+                for (int x = 0; x < value.width; x++) {
+                    out.value(value.fields.get(x, y));
+                }
+                out.endArray();
+            }
+            out.endArray();
+            out.setFormattingStyle(style);
         }
 
+        /**
+         * Adapter of single fields
+         */
+        private final FieldType.JsonAdapter fieldTypeAdapter = new FieldType.JsonAdapter();
+
+        /**
+         * Streams the nested arrays row by row into packed storage, no intermediate {@code FieldType[][]}
+         * is built. All rows must be as long as the first one and the board must contain a start.
+         */
         @Override
-        public Board read(JsonReader in) {
-            var fields = new Gson().fromJson(in, FieldType[][].class);
+        public Board read(JsonReader in) throws IOException {
+            expect(in, JsonToken.BEGIN_ARRAY);
+            in.beginArray();
+
+            FieldStorage.Builder builder = null;
+            byte[] row = new byte[0];
+            boolean hasStart = false;
+            while (in.hasNext()) {
+                expect(in, JsonToken.BEGIN_ARRAY);
+                in.beginArray();
+
+                int x = 0;
+                while (in.hasNext()) {
+                    if (builder != null && x == row.length) {
+                        throw new ValidationException(String.format("Mismatched row length: %s => more than %d fields", in.getPath(), row.length));
+                    }
+                    if (x == row.length) row = Arrays.copyOf(row, Math.max(2 * row.length, 8));
+
+                    var fieldType = fieldTypeAdapter.read(in);
+                    hasStart |= fieldType == FieldType.START;
+                    row[x++] = (byte) fieldType.ordinal();
+                }
+                in.endArray();
+
+                if (builder == null) {
+                    // the first row defines the width
+                    row = Arrays.copyOf(row, x);
+                    builder = new FieldStorage.Builder(x);
+                } else if (x != row.length) {
+                    throw new ValidationException(String.format("Mismatched row length: %s => %d fields, expected %d", in.getPath(), x, row.length));
+                }
+                builder.addRow(row);
+            }
+            in.endArray();
 
-            if (!contains((FieldType[][]) fields, FieldType.START)) {
+            if (!hasStart) {
                 throw new MissingFieldException(FieldType.START);
             }
 
-            return new Board((FieldType[][]) fields);
+            return new Board(null, builder.build());
+        }
+
+        /**
+         * Checks next token
+         * @param in reader
+         * @param token expected token
+         * @throws IOException if reader fails
+         */
+        private static void expect(JsonReader in, JsonToken token) throws IOException {
+            if (in.peek() != token) {
+                throw new UnexpectedTypeException(in.getPath(), token.toString(), in.peek().toString());
+            }
         }
     }
 }
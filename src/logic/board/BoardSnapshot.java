@@ -0,0 +1,180 @@
+package logic.board;
+
+import logic.Direction;
+import logic.util.Vector;
+
+import java.util.Objects;
+
+/**
+ * Immutable state of a {@link Board} at the time {@link Board#snapshot()} was called.
+ * A snapshot shares its fields with the board; taking one costs O(1) and only the 64x64 tiles the board
+ * changes afterwards are copied. Snapshots can be passed to other threads, kept as undo history or
+ * compared without copying the board.
+ */
+public final class BoardSnapshot {
+    /**
+     * Cached values of {@link FieldType}, used to decode the packed fields
+     */
+    private static final FieldType[] FIELD_TYPES = FieldType.values();
+
+    /**
+     * fields of board, never written, only shared with {@link FieldStorage#shareReadOnly()}
+     */
+    private final FieldStorage fields;
+    /**
+     * index of board, never written
+     */
+    private final FieldIndex index;
+    /**
+     * position of bot
+     */
+    private final Vector positionOfBot;
+    /**
+     * direction of bot
+     */
+    private final Direction directionOfBot;
+    /**
+     * Zobrist hash of board
+     */
+    private final long hash;
+
+    /**
+     * Instantiates a new snapshot. Use {@link Board#snapshot()}.
+     * @param fields fields, exclusively shared with board
+     * @param index index, copied by board before its next change
+     * @param positionOfBot position of bot
+     * @param directionOfBot direction of bot
+     * @param hash Zobrist hash of board
+     */
+    BoardSnapshot(FieldStorage fields, FieldIndex index, Vector positionOfBot, Direction directionOfBot, long hash) {
+        this.fields = fields;
+        this.index = index;
+        this.positionOfBot = positionOfBot;
+        this.directionOfBot = directionOfBot;
+        this.hash = hash;
+    }
+
+    /**
+     * Get field at position. Out of bounds positions are {@link FieldType#WALL}
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return type of field
+     */
+    public FieldType get(int x, int y) {
+        if (y >= getHeight() || y < 0) return FieldType.WALL;
+        if (x >= getWidth() || x < 0) return FieldType.WALL;
+        return FIELD_TYPES[fields.get(x, y)];
+    }
+
+    /**
+     * Get field at position. Out of bounds positions are {@link FieldType#WALL}
+     * @param v position
+     * @return type of field
+     */
+    public FieldType get(Vector v) {
+        return get(v.X(), v.Y());
+    }
+
+    /**
+     * Width of board
+     * @return width
+     */
+    public int getWidth() {
+        return fields.getWidth();
+    }
+
+    /**
+     * Height of board
+     * @return height
+     */
+    public int getHeight() {
+        return fields.getHeight();
+    }
+
+    /**
+     * Counts occurrences of given fieldType
+     * @param fieldType type of field
+     * @return count of field
+     */
+    public int count(FieldType fieldType) {
+        return fieldType == null ? 0 : index.count(fieldType);
+    }
+
+    /**
+     * Returns position of first field with matching FieldType
+     * @param fieldType FieldType to find
+     * @return position of first field with fieldType, null if none was found
+     */
+    public Vector positionOf(FieldType fieldType) {
+        if (fieldType == null || index.count(fieldType) == 0) return null;
+
+        int cell = index.isTracked(fieldType)
+                ? index.first(fieldType)
+                : fields.find((byte) fieldType.ordinal(), 0);
+        return cell < 0 ? null : new Vector(cell % getWidth(), cell / getWidth());
+    }
+
+    /**
+     * Position of start field
+     * @return position of start field, null if board has none
+     */
+    public Vector getStartPosition() {
+        return positionOf(FieldType.START);
+    }
+
+    /**
+     * Position of bot
+     * @return position of bot
+     */
+    public Vector getPositionOfBot() {
+        return positionOfBot;
+    }
+
+    /**
+     * Direction of bot
+     * @return direction of bot
+     */
+    public Direction getDirectionOfBot() {
+        return directionOfBot;
+    }
+
+    /**
+     * Zobrist hash of board, see {@link Board#getHash()}
+     * @return 64 bit hash of board state
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Creates a mutable board with the state of this snapshot in O(1).
+     * Changes of the board don't affect this snapshot. The snapshot isn't changed, so boards can be created
+     * from several threads at the same time.
+     * @return new board
+     */
+    public Board toBoard() {
+        return new Board(this, fields.shareReadOnly(), index);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    /**
+     * Snapshots are equal, if their fields, the position and the direction of their bots are equal.
+     * Snapshots with different hashes are rejected without comparing their fields.
+     *
+     * @param obj other snapshot
+     * @return true, if equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        return obj instanceof BoardSnapshot snapshot
+                && snapshot.hash == this.hash
+                && Objects.equals(snapshot.positionOfBot, this.positionOfBot)
+                && snapshot.directionOfBot == this.directionOfBot
+                && snapshot.fields.contentEquals(this.fields);
+    }
+}
@@ -0,0 +1,124 @@
+package logic.board;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Index of the fields of a {@link Board}, kept up to date by {@link Board#set(int, int, FieldType)}.
+ * Counts every {@link FieldType} and keeps the positions of the rare field types
+ * (start, door and coins) sorted by cell index, so they are found without scanning the board.
+ */
+class FieldIndex {
+    /**
+     * Field types whose positions are tracked
+     */
+    static final Set<FieldType> TRACKED = EnumSet.of(FieldType.START, FieldType.DOOR, FieldType.COIN);
+
+    /**
+     * count of fields per field type (indexed by ordinal)
+     */
+    private final int[] counts;
+    /**
+     * sorted cell indices per tracked field type (indexed by ordinal, null if not tracked)
+     */
+    private final TreeSet<Integer>[] positions;
+
+    /**
+     * Instantiates a new, empty index
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    FieldIndex() {
+        this.counts = new int[FieldType.values().length];
+        this.positions = new TreeSet[FieldType.values().length];
+        for (FieldType fieldType : TRACKED) {
+            positions[fieldType.ordinal()] = new TreeSet<>();
+        }
+    }
+
+    /**
+     * Copy constructor
+     * @param index index that should be copied
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    FieldIndex(FieldIndex index) {
+        this.counts = index.counts.clone();
+        this.positions = new TreeSet[index.positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            if (index.positions[i] != null) positions[i] = new TreeSet<>(index.positions[i]);
+        }
+    }
+
+    /**
+     * Registers a field
+     * @param cell cell index of field
+     * @param fieldType type of field
+     */
+    void add(int cell, FieldType fieldType) {
+        counts[fieldType.ordinal()]++;
+        if (positions[fieldType.ordinal()] != null) positions[fieldType.ordinal()].add(cell);
+    }
+
+    /**
+     * Registers fields of an untracked field type at once
+     * @param fieldType untracked type of fields
+     * @param count count of fields
+     */
+    void add(FieldType fieldType, int count) {
+        assert !isTracked(fieldType);
+        counts[fieldType.ordinal()] += count;
+    }
+
+    /**
+     * Unregisters a field
+     * @param cell cell index of field
+     * @param fieldType type of field
+     */
+    void remove(int cell, FieldType fieldType) {
+        counts[fieldType.ordinal()]--;
+        if (positions[fieldType.ordinal()] != null) positions[fieldType.ordinal()].remove(cell);
+    }
+
+    /**
+     * Count of fields with field type
+     * @param fieldType type of field
+     * @return count of fields
+     */
+    int count(FieldType fieldType) {
+        return counts[fieldType.ordinal()];
+    }
+
+    /**
+     * Is field type tracked by this index?
+     * @param fieldType type of field
+     * @return true, if positions of field type are indexed
+     */
+    boolean isTracked(FieldType fieldType) {
+        return positions[fieldType.ordinal()] != null;
+    }
+
+    /**
+     * First cell index of tracked field type
+     * @param fieldType tracked type of field
+     * @return cell index, -1 if no field has field type
+     */
+    int first(FieldType fieldType) {
+        var cells = positions[fieldType.ordinal()];
+        return cells.isEmpty() ? -1 : cells.first();
+    }
+
+    /**
+     * Sorted cell indices of tracked field type
+     * @param fieldType tracked type of field
+     * @return cell indices
+     */
+    int[] cells(FieldType fieldType) {
+        return positions[fieldType.ordinal()].stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public String toString() {
+        return "FieldIndex" + Arrays.toString(counts);
+    }
+}
@@ -0,0 +1,477 @@
+package logic.board;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Packed storage of the fields of a {@link Board}. Every field holds the ordinal of its {@link FieldType}.
+ * <p>
+ * Fields are split into square tiles of {@link #TILE_SIZE} x {@link #TILE_SIZE} fields. A tile whose fields
+ * all have the same type is uniform and only stores that type, so large regions of walls or abysses cost
+ * nothing. A tile is allocated on the first write of a different type and released again by {@link #compact()}.
+ * <p>
+ * Copies made with {@link #share()} are structurally shared: both storages use the same tiles until one of
+ * them writes. A write copies only the tile it touches (copy-on-write), so a copy costs O(1) and unchanged
+ * tiles are never duplicated. A tile belongs to a storage, if it was copied in the storage's current epoch.
+ */
+class FieldStorage {
+    /**
+     * log2 of {@link #TILE_SIZE}
+     */
+    static final int TILE_SHIFT = 6;
+    /**
+     * Width and height of a tile
+     */
+    static final int TILE_SIZE = 1 << TILE_SHIFT;
+    /**
+     * Mask of the coordinate inside a tile
+     */
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    /**
+     * Source of unique epochs. Every storage starts a new epoch when it is shared.
+     */
+    private static final AtomicLong EPOCHS = new AtomicLong();
+
+    /**
+     * Width of storage
+     */
+    private final int width;
+    /**
+     * Height of storage
+     */
+    private final int height;
+    /**
+     * count of tiles per row of tiles
+     */
+    private final int tilesX;
+    /**
+     * count of rows of tiles
+     */
+    private final int tilesY;
+    /**
+     * Fields of every tile, row by row. null if the tile is uniform. Possibly shared with other storages.
+     */
+    private byte[][] tiles;
+    /**
+     * Type of all fields of uniform tiles, undefined for allocated tiles
+     */
+    private byte[] uniform;
+    /**
+     * Epoch each tile was copied in. A tile can only be written if it was copied in the current epoch.
+     */
+    private long[] tileEpochs;
+    /**
+     * Current epoch of this storage
+     */
+    private long epoch;
+    /**
+     * true, if the arrays {@link #tiles}, {@link #uniform} and {@link #tileEpochs} are shared with another storage
+     */
+    private boolean directoryShared;
+
+    /**
+     * Instantiates a new storage, all fields are {@link FieldType#WALL}
+     * @param width width of storage
+     * @param height height of storage
+     */
+    FieldStorage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        this.tilesY = (height + TILE_MASK) >> TILE_SHIFT;
+        this.tiles = new byte[tilesX * tilesY][];
+        this.uniform = new byte[tilesX * tilesY];
+        this.tileEpochs = new long[tilesX * tilesY];
+        this.epoch = EPOCHS.incrementAndGet();
+        this.directoryShared = false;
+
+        Arrays.fill(uniform, (byte) FieldType.WALL.ordinal());
+    }
+
+    /**
+     * Instantiates a new storage from tiles, see {@link Builder}
+     * @param width width of storage
+     * @param height height of storage
+     * @param tiles fields of every tile, null if uniform
+     * @param uniform type of all fields of uniform tiles
+     */
+    private FieldStorage(int width, int height, byte[][] tiles, byte[] uniform) {
+        this.width = width;
+        this.height = height;
+        this.tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        this.tilesY = (height + TILE_MASK) >> TILE_SHIFT;
+        this.tiles = tiles;
+        this.uniform = uniform;
+        this.tileEpochs = new long[tiles.length];
+        this.epoch = EPOCHS.incrementAndGet();
+        this.directoryShared = false;
+
+        Arrays.fill(tileEpochs, epoch);
+    }
+
+    /**
+     * Instantiates a new storage that shares all tiles with storage
+     * @param storage shared storage
+     */
+    private FieldStorage(FieldStorage storage) {
+        this.width = storage.width;
+        this.height = storage.height;
+        this.tilesX = storage.tilesX;
+        this.tilesY = storage.tilesY;
+        this.tiles = storage.tiles;
+        this.uniform = storage.uniform;
+        this.tileEpochs = storage.tileEpochs;
+        this.epoch = EPOCHS.incrementAndGet();
+        this.directoryShared = true;
+    }
+
+    /**
+     * Copies this storage in O(1). Neither this storage nor the copy can write a shared tile anymore,
+     * both copy a tile before it is written the first time.
+     * @return copy of this storage
+     */
+    FieldStorage share() {
+        var copy = new FieldStorage(this);
+        this.directoryShared = true;
+        this.epoch = EPOCHS.incrementAndGet();
+        return copy;
+    }
+
+    /**
+     * Copies this storage in O(1) without changing it, for storages that are never written again, e.g. of a
+     * {@link BoardSnapshot}. No tile belongs to the copy, it copies a tile before it is written the first time.
+     * Several threads can share such a storage at the same time.
+     * @return copy of this storage
+     */
+    FieldStorage shareReadOnly() {
+        return new FieldStorage(this);
+    }
+
+    /**
+     * Width of storage
+     * @return width
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Height of storage
+     * @return height
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Count of tiles per row of tiles
+     * @return count of tiles
+     */
+    int getTilesX() {
+        return tilesX;
+    }
+
+    /**
+     * Count of rows of tiles
+     * @return count of rows
+     */
+    int getTilesY() {
+        return tilesY;
+    }
+
+    /**
+     * Type of all fields of a tile
+     * @param tileX X-Axis coordinate of tile
+     * @param tileY Y-Axis coordinate of tile
+     * @return ordinal of field type, -1 if the fields of the tile have different types
+     */
+    int uniformOf(int tileX, int tileY) {
+        final int t = tileY * tilesX + tileX;
+        return tiles[t] == null ? uniform[t] : -1;
+    }
+
+    /**
+     * Get ordinal of field. Coordinates are not checked.
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return ordinal of field type
+     */
+    byte get(int x, int y) {
+        final int t = (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+        final byte[] tile = tiles[t];
+        return tile == null ? uniform[t] : tile[offset(x, y)];
+    }
+
+    /**
+     * Set ordinal of field. Coordinates are not checked.
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @param value ordinal of field type
+     */
+    void set(int x, int y, byte value) {
+        if (get(x, y) == value) return;
+
+        unshareDirectory();
+        final int t = (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+        if (tiles[t] == null) {
+            tiles[t] = new byte[TILE_SIZE * TILE_SIZE];
+            Arrays.fill(tiles[t], uniform[t]);
+            tileEpochs[t] = epoch;
+        } else if (tileEpochs[t] != epoch) {
+            tiles[t] = tiles[t].clone();
+            tileEpochs[t] = epoch;
+        }
+        tiles[t][offset(x, y)] = value;
+    }
+
+    /**
+     * Releases every allocated tile whose fields all have the same type
+     */
+    void compact() {
+        for (int tileY = 0; tileY < tilesY; tileY++) {
+            for (int tileX = 0; tileX < tilesX; tileX++) {
+                final int t = tileY * tilesX + tileX;
+                if (tiles[t] == null) continue;
+
+                final byte value = get(tileX << TILE_SHIFT, tileY << TILE_SHIFT);
+                if (isFilledWith(tileX, tileY, value)) {
+                    unshareDirectory();
+                    tiles[t] = null;
+                    uniform[t] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Searches first field with value in row major order
+     * @param value ordinal of field type
+     * @param from cell index (y * width + x) search starts at
+     * @return cell index of field, -1 if no field was found
+     */
+    int find(byte value, int from) {
+        if (width == 0) return -1;
+
+        for (int y = from / width, x = from % width; y < height; y++, x = 0) {
+            final int tileY = y >> TILE_SHIFT;
+            for (; x < width; x = (x | TILE_MASK) + 1) {
+                final int t = tileY * tilesX + (x >> TILE_SHIFT);
+                final byte[] tile = tiles[t];
+                if (tile == null) {
+                    if (uniform[t] == value) return y * width + x;
+                    continue;
+                }
+
+                final int end = Math.min(width, (x | TILE_MASK) + 1);
+                for (int i = x; i < end; i++) {
+                    if (tile[offset(i, y)] == value) return y * width + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the fields of both storages. Shared tiles are not compared field by field.
+     * @param other other storage
+     * @return true, if both storages contain the same fields
+     */
+    boolean contentEquals(FieldStorage other) {
+        if (this.width != other.width || this.height != other.height) return false;
+
+        for (int tileY = 0; tileY < tilesY; tileY++) {
+            for (int tileX = 0; tileX < tilesX; tileX++) {
+                final int t = tileY * tilesX + tileX;
+                if (this.tiles[t] != null && this.tiles[t] == other.tiles[t]) continue;
+
+                final int uniform = this.uniformOf(tileX, tileY);
+                if (uniform >= 0 && uniform == other.uniformOf(tileX, tileY)) continue;
+
+                if (!tileEquals(other, tileX, tileY)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the fields of a tile field by field
+     * @param other other storage
+     * @param tileX X-Axis coordinate of tile
+     * @param tileY Y-Axis coordinate of tile
+     * @return true, if all fields of the tile are equal
+     */
+    private boolean tileEquals(FieldStorage other, int tileX, int tileY) {
+        final int endX = Math.min(width, (tileX + 1) << TILE_SHIFT);
+        final int endY = Math.min(height, (tileY + 1) << TILE_SHIFT);
+        for (int y = tileY << TILE_SHIFT; y < endY; y++) {
+            for (int x = tileX << TILE_SHIFT; x < endX; x++) {
+                if (this.get(x, y) != other.get(x, y)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks every field of a tile
+     * @param tileX X-Axis coordinate of tile
+     * @param tileY Y-Axis coordinate of tile
+     * @param value ordinal of field type
+     * @return true, if all fields of the tile have value
+     */
+    private boolean isFilledWith(int tileX, int tileY, byte value) {
+        final int endX = Math.min(width, (tileX + 1) << TILE_SHIFT);
+        final int endY = Math.min(height, (tileY + 1) << TILE_SHIFT);
+        for (int y = tileY << TILE_SHIFT; y < endY; y++) {
+            for (int x = tileX << TILE_SHIFT; x < endX; x++) {
+                if (get(x, y) != value) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the directory of tiles, if it is shared with another storage
+     */
+    private void unshareDirectory() {
+        if (!directoryShared) return;
+
+        tiles = tiles.clone();
+        uniform = uniform.clone();
+        tileEpochs = tileEpochs.clone();
+        directoryShared = false;
+    }
+
+    /**
+     * Checks the used part of a tile
+     * @param tile fields of tile
+     * @param width used width of tile
+     * @param height used height of tile
+     * @return true, if all used fields have the same type
+     */
+    private static boolean isUniform(byte[] tile, int width, int height) {
+        final byte value = tile[0];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (tile[(y << TILE_SHIFT) | x] != value) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds a storage row by row, for boards whose height isn't known in advance (e.g. while parsing).
+     * Rows are copied into tiles right away and every completed row of tiles is compacted,
+     * so memory stays close to the size of the final storage.
+     */
+    static final class Builder {
+        /**
+         * width of storage
+         */
+        private final int width;
+        /**
+         * count of tiles per row of tiles
+         */
+        private final int tilesX;
+        /**
+         * tiles of all rows of tiles, row by row. Grows geometrically, only the tiles of added rows are used.
+         */
+        private byte[][] tiles;
+        /**
+         * type of all fields of uniform tiles, same capacity as tiles
+         */
+        private byte[] uniform;
+        /**
+         * count of added rows
+         */
+        private int height;
+
+        /**
+         * Instantiates a new builder
+         * @param width width of every row
+         */
+        Builder(int width) {
+            this.width = width;
+            this.tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+            this.tiles = new byte[0][];
+            this.uniform = new byte[0];
+        }
+
+        /**
+         * Appends a row
+         * @param row ordinals of field types, at least width fields
+         */
+        void addRow(byte[] row) {
+            final int tileRow = height >> TILE_SHIFT;
+            final int offset = (height & TILE_MASK) << TILE_SHIFT;
+
+            if (offset == 0) {
+                // start a new row of tiles, capacity doubles so a tall board is copied O(log height) times
+                final int required = (tileRow + 1) * tilesX;
+                if (required > tiles.length) {
+                    final int capacity = Math.max(required, 2 * tiles.length);
+                    tiles = Arrays.copyOf(tiles, capacity);
+                    uniform = Arrays.copyOf(uniform, capacity);
+                }
+                for (int tileX = 0; tileX < tilesX; tileX++) {
+                    tiles[tileRow * tilesX + tileX] = new byte[TILE_SIZE * TILE_SIZE];
+                }
+            }
+            for (int tileX = 0; tileX < tilesX; tileX++) {
+                final int from = tileX << TILE_SHIFT;
+                System.arraycopy(row, from, tiles[tileRow * tilesX + tileX], offset, Math.min(TILE_SIZE, width - from));
+            }
+
+            height++;
+            if ((height & TILE_MASK) == 0) compact(tileRow);
+        }
+
+        /**
+         * Count of added rows
+         * @return height
+         */
+        int getHeight() {
+            return height;
+        }
+
+        /**
+         * Builds the storage. The builder must not be used afterwards.
+         * @return storage of all added rows
+         */
+        FieldStorage build() {
+            if ((height & TILE_MASK) != 0) compact(height >> TILE_SHIFT);
+
+            final int used = ((height + TILE_MASK) >> TILE_SHIFT) * tilesX;
+            if (used != tiles.length) {
+                tiles = Arrays.copyOf(tiles, used);
+                uniform = Arrays.copyOf(uniform, used);
+            }
+            return new FieldStorage(width, height, tiles, uniform);
+        }
+
+        /**
+         * Releases uniform tiles of a row of tiles
+         * @param tileRow row of tiles
+         */
+        private void compact(int tileRow) {
+            final int tileHeight = Math.min(TILE_SIZE, height - (tileRow << TILE_SHIFT));
+            for (int tileX = 0; tileX < tilesX; tileX++) {
+                final int t = tileRow * tilesX + tileX;
+                final int tileWidth = Math.min(TILE_SIZE, width - (tileX << TILE_SHIFT));
+                if (isUniform(tiles[t], tileWidth, tileHeight)) {
+                    uniform[t] = tiles[t][0];
+                    tiles[t] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Offset of field inside its tile
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return offset
+     */
+    private static int offset(int x, int y) {
+        return ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+    }
+}
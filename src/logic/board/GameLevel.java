@@ -1,24 +1,40 @@
 package logic.board;
 
-import com.google.gson.*;
-import com.google.gson.annotations.SerializedName;
+import com.google.gson.FormattingStyle;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import logic.Direction;
 import logic.exception.validation.MissingKeyException;
 import logic.util.Vector;
 
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
-import java.lang.annotation.ElementType;
-import java.lang.annotation.Retention;
-import java.lang.annotation.RetentionPolicy;
-import java.lang.annotation.Target;
-import java.lang.reflect.Field;
-import java.lang.reflect.Type;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * The type Game level.
  *
  */
+@JsonAdapter(GameLevel.JsonAdapter.class)
 public class GameLevel {
+    /**
+     * Shared codec, the adapters are stateless and thread-safe
+     */
+    private static final JsonAdapter ADAPTER = new JsonAdapter();
+
     /**
      * Empty level
      */
@@ -33,17 +49,13 @@ public class GameLevel {
     private String name;
 
     /**
-     * field data of level
+     * field data of level, json key "field"
      */
-    @Required
-    @SerializedName("field")
     private final Board board;
 
     /**
-     * Start direction of level
+     * Start direction of level, json key "botRotation"
      */
-    @Required
-    @SerializedName("botRotation")
     private final Direction botDirection;
 
     /**
@@ -130,7 +142,29 @@ public class GameLevel {
      * @return the string
      */
     public String toJson() {
-        return new GsonBuilder().setPrettyPrinting().create().toJson(this);
+        var writer = new StringWriter();
+        toJson(writer);
+        return writer.toString();
+    }
+
+    /**
+     * Writes the json of this level, formatted like {@link #toJson()}.
+     *
+     * @param writer the writer, not closed
+     */
+    public void toJson(Writer writer) {
+        var out = new JsonWriter(writer);
+        // same output as a pretty printing Gson
+        out.setFormattingStyle(FormattingStyle.PRETTY);
+        out.setStrictness(Strictness.LENIENT);
+        out.setHtmlSafe(true);
+        out.setSerializeNulls(false);
+        try {
+            ADAPTER.write(out, this);
+            out.flush();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
     }
 
     @Override
@@ -148,10 +182,8 @@ public class GameLevel {
      * @return the game level
      */
     public static GameLevel fromJson(String jsonInput) {
-        var gson = new GsonBuilder()
-                .registerTypeAdapter(GameLevel.class, new GameLevelDeserializer())
-                .create();
-        return gson.fromJson(jsonInput, GameLevel.class);
+        if (jsonInput == null) return null;
+        return fromJson(new StringReader(jsonInput));
     }
 
     /**
@@ -161,43 +193,111 @@ public class GameLevel {
      * @return the game level
      */
     public static GameLevel fromJson(Reader reader) {
-        var gson = new GsonBuilder()
-                .registerTypeAdapter(GameLevel.class, new GameLevelDeserializer())
-                .create();
-        return gson.fromJson(reader, GameLevel.class);
+        // same leniency and exceptions as Gson#fromJson, without resolving the adapter by reflection
+        var in = new JsonReader(reader);
+        in.setStrictness(Strictness.LENIENT);
+        try {
+            try {
+                in.peek();
+            } catch (EOFException e) {
+                // empty document
+                return null;
+            }
+            var level = ADAPTER.read(in);
+
+            if (in.peek() != JsonToken.END_DOCUMENT) throw new JsonSyntaxException("JSON document was not fully consumed.");
+            return level;
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
     }
 
     /**
-     * Use this Annotation to mark fields as "required".
-     * If you then want to deserialize into that class, the strict deserializer will check if the fields exists,
-     * and abort if it doesn't;
+     * Reads a level in json or in binary format, see {@link LevelBinaryFormat}.
+     * The format is detected from the first bytes of input.
+     *
+     * @param input the input, not closed
+     * @return the game level
+     * @throws IOException if reading fails
      */
-    @Retention(RetentionPolicy.RUNTIME)
-    @Target(ElementType.FIELD)
-    private @interface Required {}
+    public static GameLevel load(InputStream input) throws IOException {
+        var in = new BufferedInputStream(input);
+        var head = new byte[LevelBinaryFormat.headLength()];
+        in.mark(head.length);
+        final int length = in.readNBytes(head, 0, head.length);
+        in.reset();
+
+        if (LevelBinaryFormat.isBinary(head, length)) return LevelBinaryFormat.read(in);
+        return fromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
 
     /**
-     * Used to deserialize gamelevel json. Injects checking for required attributes
+     * Reads and writes game level json in a single streaming pass.
+     * Required keys are checked while reading, a missing (or null) key is reported as {@link MissingKeyException}.
+     * Unknown keys are skipped.
      */
-    private static class GameLevelDeserializer implements JsonDeserializer<GameLevel> {
+    public static class JsonAdapter extends TypeAdapter<GameLevel> {
+        /**
+         * Adapter of board
+         */
+        private final Board.JsonAdapter boardAdapter = new Board.JsonAdapter();
+        /**
+         * Adapter of bot direction
+         */
+        private final Direction.JsonAdapter directionAdapter = new Direction.JsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, GameLevel value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            if (value.name != null) out.name("name").value(value.name);
+            out.name("field");
+            boardAdapter.write(out, value.board);
+            out.name("botRotation");
+            if (value.botDirection != null) directionAdapter.write(out, value.botDirection);
+            else out.nullValue();
+            out.endObject();
+        }
+
         @Override
-        public GameLevel deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-            GameLevel pojo = new Gson().fromJson(json, typeOfT);
-
-            // check for required fields
-            for (Field f : pojo.getClass().getDeclaredFields()) {
-                if (f.getAnnotation(Required.class) != null) {
-                    // use value of {@code serializedName} from Gson, if available
-                    String name = f.getAnnotation(SerializedName.class) != null
-                            ? f.getAnnotation(SerializedName.class).value()
-                            : f.getName();
-
-                    if (json.getAsJsonObject().get(name) == null)
-                        throw new MissingKeyException(name);
+        public GameLevel read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            String name = null;
+            Board board = null;
+            Direction botDirection = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (key) {
+                    case "name" -> name = in.nextString();
+                    case "field" -> board = boardAdapter.read(in);
+                    case "botRotation" -> botDirection = directionAdapter.read(in);
+                    default -> in.skipValue();
                 }
             }
+            in.endObject();
+
+            // check for required fields, null counts as missing
+            if (board == null) throw new MissingKeyException("field");
+            if (botDirection == null) throw new MissingKeyException("botRotation");
 
-            return pojo;
+            var level = new GameLevel(board, botDirection);
+            level.setName(name);
+            return level;
         }
     }
 }
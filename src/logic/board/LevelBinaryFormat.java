@@ -0,0 +1,488 @@
+package logic.board;
+
+import logic.Direction;
+import logic.exception.validation.MissingFieldException;
+import logic.exception.validation.ValidationException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compact binary level format, an alternative to the json format of {@link GameLevel}.
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ * magic        4 bytes   "EBLV"
+ * version      1 byte    {@link #VERSION}
+ * encoding     1 byte    {@link #PACKED} or {@link #RLE}
+ * width        4 bytes
+ * height       4 bytes
+ * botRotation  1 byte    ordinal of {@link Direction}, 0xFF if none
+ * name         1 byte    1 if a name follows, 0 otherwise
+ *              n bytes   name as modified UTF-8 (see {@link DataOutputStream#writeUTF(String)})
+ * hash         8 bytes   {@link Board#getHash()} of the level's board, checked while reading
+ * fields       ...       row by row, see encoding
+ * </pre>
+ * {@link #PACKED} stores every field as its 3 bit ordinal, 8 fields in 3 bytes.
+ * {@link #RLE} stores runs of equal fields: one byte holding the ordinal in the upper 3 bits and the length - 1
+ * in the lower 5 bits; a length - 1 of 31 or more stores 31 and is followed by the rest of the length as varint.
+ * The writer picks the smaller encoding.
+ * <p>
+ * Sizes are checked before anything is allocated: a side may be at most {@link #MAX_SIZE} fields long, a board
+ * may have at most {@link #MAX_FIELDS} fields and, if the length of the data is known, the packed fields have to fit.
+ */
+public final class LevelBinaryFormat {
+    /**
+     * File extension of binary levels
+     */
+    public static final String EXTENSION = ".eblv";
+    /**
+     * Current version of the format
+     */
+    public static final int VERSION = 2;
+    /**
+     * Fields are packed with 3 bits each
+     */
+    public static final int PACKED = 0;
+    /**
+     * Fields are run length encoded
+     */
+    public static final int RLE = 1;
+    /**
+     * Longest side of a board that is read or written
+     */
+    public static final int MAX_SIZE = 1 << 15;
+    /**
+     * Largest count of fields of a board that is read or written
+     */
+    public static final long MAX_FIELDS = 1L << 24;
+
+    /**
+     * First bytes of every binary level
+     */
+    private static final byte[] MAGIC = {'E', 'B', 'L', 'V'};
+    /**
+     * Bits per field in {@link #PACKED} encoding
+     */
+    private static final int BITS_PER_FIELD = 3;
+    /**
+     * Longest run length - 1 stored in the run byte itself
+     */
+    private static final int SHORT_RUN = 31;
+    /**
+     * Stored instead of a rotation, if level has none
+     */
+    private static final int NO_ROTATION = 0xFF;
+    /**
+     * Size of the header without name
+     */
+    private static final int HEADER_LENGTH = 24;
+    /**
+     * Cached values of {@link FieldType}
+     */
+    private static final FieldType[] FIELD_TYPES = FieldType.values();
+
+    /**
+     * Utility class
+     */
+    private LevelBinaryFormat() {
+    }
+
+    /**
+     * Does data start like a binary level?
+     * @param head first bytes of data
+     * @param length count of valid bytes in head
+     * @return true, if data starts with the magic of this format
+     */
+    public static boolean isBinary(byte[] head, int length) {
+        if (length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Count of bytes needed to detect the format, see {@link #isBinary(byte[], int)}
+     * @return count of bytes
+     */
+    public static int headLength() {
+        return MAGIC.length;
+    }
+
+    /**
+     * Writes level, the stream is flushed but not closed
+     * @param level level
+     * @param output output stream
+     * @throws IOException if writing fails
+     * @throws ValidationException if the board exceeds {@link #MAX_SIZE} or {@link #MAX_FIELDS},
+     *                             it couldn't be read back. Nothing is written then.
+     */
+    public static void write(GameLevel level, OutputStream output) throws IOException {
+        var board = level.getBoard();
+        checkSize(board.getWidth(), board.getHeight());
+        var out = new DataOutputStream(new BufferedOutputStream(output));
+        final int encoding = rleLength(board) < packedLength(board) ? RLE : PACKED;
+
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(encoding);
+        out.writeInt(board.getWidth());
+        out.writeInt(board.getHeight());
+        out.writeByte(level.getStartBotDirection() == null ? NO_ROTATION : level.getStartBotDirection().ordinal());
+        out.writeBoolean(level.getName() != null);
+        if (level.getName() != null) out.writeUTF(level.getName());
+        out.writeLong(board.getHash());
+
+        if (encoding == RLE) writeRuns(board, out);
+        else writePacked(board, out);
+        out.flush();
+    }
+
+    /**
+     * Reads a level. Fields are decoded row by row into the board storage.
+     * @param input input stream, positioned at the magic
+     * @return level
+     * @throws IOException if reading fails or data ends early
+     * @throws ValidationException if data isn't a valid binary level
+     */
+    public static GameLevel read(InputStream input) throws IOException {
+        return read(input, -1);
+    }
+
+    /**
+     * Reads a level of known length. The size of the board is checked against the length before
+     * the fields are allocated.
+     * @param input input stream, positioned at the magic
+     * @param length count of bytes of the level, -1 if unknown
+     * @return level
+     * @throws IOException if reading fails or data ends early
+     * @throws ValidationException if data isn't a valid binary level
+     */
+    public static GameLevel read(InputStream input, long length) throws IOException {
+        var in = new DataInputStream(input);
+        var header = readHeader(in, length);
+
+        var fields = header.encoding() == RLE
+                ? readRuns(in, header.width(), header.height())
+                : readPacked(in, header.width(), header.height());
+        if (fields.count(FieldType.START) == 0) throw new MissingFieldException(FieldType.START);
+
+        var level = new GameLevel(fields, header.direction());
+        level.setName(header.name());
+        if (level.getBoard().getHash() != header.hash()) throw new ValidationException("Content hash mismatch");
+
+        return level;
+    }
+
+    /**
+     * Reads the metadata of a level, fields aren't read
+     * @param input input stream, positioned at the magic
+     * @return metadata
+     * @throws IOException if reading fails or data ends early
+     * @throws ValidationException if data isn't a valid binary level
+     */
+    public static LevelInfo readInfo(InputStream input) throws IOException {
+        var header = readHeader(new DataInputStream(input), -1);
+        return new LevelInfo(header.name(), header.width(), header.height(), header.hash());
+    }
+
+    /**
+     * Header of a binary level
+     * @param encoding encoding of fields
+     * @param width width of board
+     * @param height height of board
+     * @param direction start direction of bot, may be null
+     * @param name name of level, may be null
+     * @param hash board hash
+     */
+    private record Header(int encoding, int width, int height, Direction direction, String name, long hash) {}
+
+    /**
+     * Checks the size of a board against {@link #MAX_SIZE} and {@link #MAX_FIELDS}
+     * @param width width of board
+     * @param height height of board
+     * @throws ValidationException if the size is negative or too large
+     */
+    private static void checkSize(int width, int height) {
+        if (width < 0 || height < 0 || width > MAX_SIZE || height > MAX_SIZE || (long) width * height > MAX_FIELDS) {
+            throw new ValidationException(String.format("Invalid size: %dx%d", width, height));
+        }
+    }
+
+    /**
+     * Reads and checks the header
+     * @param in input, positioned at the magic
+     * @param length count of bytes of the level, -1 if unknown
+     * @return header
+     * @throws IOException if reading fails
+     */
+    private static Header readHeader(DataInputStream in, long length) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!isBinary(magic, magic.length)) throw new ValidationException("Not a binary level");
+
+        final int version = in.readUnsignedByte();
+        if (version != VERSION) throw new ValidationException("Unsupported binary level version: " + version);
+        final int encoding = in.readUnsignedByte();
+        if (encoding != PACKED && encoding != RLE) throw new ValidationException("Unknown field encoding: " + encoding);
+
+        final int width = in.readInt();
+        final int height = in.readInt();
+        checkSize(width, height);
+
+        final int rotation = in.readUnsignedByte();
+        final Direction direction;
+        if (rotation == NO_ROTATION) direction = null;
+        else if (rotation < Direction.values().length) direction = Direction.fromOrdinal(rotation);
+        else throw new ValidationException("Mismatched Format: botRotation => " + rotation);
+
+        final String name = in.readBoolean() ? in.readUTF() : null;
+        if (length >= 0) {
+            // runs may cover any count of fields, packed fields have a fixed size
+            final long fields = length - HEADER_LENGTH - (name == null ? 0 : 2 + utfLength(name));
+            final long required = encoding == PACKED ? packedLength(width, height) : Math.min(1, (long) width * height);
+            if (fields < required) throw new ValidationException(String.format("Fields of %dx%d board exceed data", width, height));
+        }
+        return new Header(encoding, width, height, direction, name, in.readLong());
+    }
+
+    /**
+     * Length of a string in modified UTF-8, see {@link DataOutputStream#writeUTF(String)}
+     * @param value string
+     * @return count of bytes, without the length prefix
+     */
+    private static long utfLength(String value) {
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) bytes++;
+            else if (c <= 0x07FF) bytes += 2;
+            else bytes += 3;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes all fields with 3 bits each
+     * @param board board
+     * @param out output
+     * @throws IOException if writing fails
+     */
+    private static void writePacked(Board board, DataOutputStream out) throws IOException {
+        long buffer = 0;
+        int bits = 0;
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                buffer |= (long) board.get(x, y).ordinal() << bits;
+                bits += BITS_PER_FIELD;
+                while (bits >= Byte.SIZE) {
+                    out.writeByte((int) buffer);
+                    buffer >>>= Byte.SIZE;
+                    bits -= Byte.SIZE;
+                }
+            }
+        }
+        if (bits > 0) out.writeByte((int) buffer);
+    }
+
+    /**
+     * Reads fields with 3 bits each
+     * @param in input
+     * @param width width of board
+     * @param height height of board
+     * @return board
+     * @throws IOException if reading fails
+     */
+    private static Board readPacked(DataInputStream in, int width, int height) throws IOException {
+        var builder = new FieldStorage.Builder(width);
+        var row = new byte[width];
+        long buffer = 0;
+        int bits = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (bits < BITS_PER_FIELD) {
+                    buffer |= (long) in.readUnsignedByte() << bits;
+                    bits += Byte.SIZE;
+                }
+                row[x] = ordinalOf((int) (buffer & ((1 << BITS_PER_FIELD) - 1)));
+                buffer >>>= BITS_PER_FIELD;
+                bits -= BITS_PER_FIELD;
+            }
+            builder.addRow(row);
+        }
+        return new Board(null, builder.build());
+    }
+
+    /**
+     * Writes all fields as runs of equal fields. Runs continue over row ends.
+     * @param board board
+     * @param out output
+     * @throws IOException if writing fails
+     */
+    private static void writeRuns(Board board, DataOutputStream out) throws IOException {
+        int type = -1;
+        long length = 0;
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                final int next = board.get(x, y).ordinal();
+                if (next != type && length > 0) {
+                    writeRun(out, type, length);
+                    length = 0;
+                }
+                type = next;
+                length++;
+            }
+        }
+        if (length > 0) writeRun(out, type, length);
+    }
+
+    /**
+     * Writes a run
+     * @param out output
+     * @param type ordinal of field type
+     * @param length length of run, at least 1
+     * @throws IOException if writing fails
+     */
+    private static void writeRun(DataOutputStream out, int type, long length) throws IOException {
+        final long rest = length - 1;
+        out.writeByte(type << 5 | (int) Math.min(rest, SHORT_RUN));
+        if (rest >= SHORT_RUN) writeVarLong(out, rest - SHORT_RUN);
+    }
+
+    /**
+     * Reads runs of equal fields
+     * @param in input
+     * @param width width of board
+     * @param height height of board
+     * @return board
+     * @throws IOException if reading fails
+     */
+    private static Board readRuns(DataInputStream in, int width, int height) throws IOException {
+        var builder = new FieldStorage.Builder(width);
+        var row = new byte[width];
+        byte type = 0;
+        long remaining = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (remaining == 0) {
+                    final int run = in.readUnsignedByte();
+                    type = ordinalOf(run >>> 5);
+                    remaining = (run & SHORT_RUN) + 1;
+                    if ((run & SHORT_RUN) == SHORT_RUN) remaining += readVarLong(in);
+                }
+                row[x] = type;
+                remaining--;
+            }
+            builder.addRow(row);
+        }
+        if (remaining != 0) throw new ValidationException("Run exceeds board");
+        return new Board(null, builder.build());
+    }
+
+    /**
+     * Size of {@link #PACKED} fields
+     * @param board board
+     * @return count of bytes
+     */
+    private static long packedLength(Board board) {
+        return packedLength(board.getWidth(), board.getHeight());
+    }
+
+    /**
+     * Size of {@link #PACKED} fields
+     * @param width width of board
+     * @param height height of board
+     * @return count of bytes
+     */
+    private static long packedLength(int width, int height) {
+        return ((long) width * height * BITS_PER_FIELD + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    /**
+     * Size of {@link #RLE} fields, counting stops once it exceeds the packed size
+     * @param board board
+     * @return count of bytes
+     */
+    private static long rleLength(Board board) {
+        final long limit = packedLength(board);
+        long bytes = 0;
+        int type = -1;
+        long length = 0;
+        for (int y = 0; y < board.getHeight() && bytes <= limit; y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                final int next = board.get(x, y).ordinal();
+                if (next != type && length > 0) {
+                    bytes += runLength(length);
+                    length = 0;
+                }
+                type = next;
+                length++;
+            }
+        }
+        return length > 0 ? bytes + runLength(length) : bytes;
+    }
+
+    /**
+     * Size of a stored run
+     * @param length length of run
+     * @return count of bytes
+     */
+    private static int runLength(long length) {
+        long rest = length - 1 - SHORT_RUN;
+        int bytes = 1;
+        if (rest >= 0) {
+            do {
+                bytes++;
+                rest >>>= 7;
+            } while (rest != 0);
+        }
+        return bytes;
+    }
+
+    /**
+     * Checks a decoded ordinal
+     * @param ordinal ordinal of field type
+     * @return ordinal as byte
+     */
+    private static byte ordinalOf(int ordinal) {
+        if (ordinal >= FIELD_TYPES.length) {
+            throw new ValidationException("Mismatched Format: field => " + ordinal);
+        }
+        return (byte) ordinal;
+    }
+
+    /**
+     * Writes a non-negative number with 7 bits per byte, lowest bits first
+     * @param out output
+     * @param value number
+     * @throws IOException if writing fails
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads a number written by {@link #writeVarLong(DataOutputStream, long)}
+     * @param in input
+     * @return number
+     * @throws IOException if reading fails
+     */
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new ValidationException("Malformed run length");
+    }
+}
@@ -0,0 +1,227 @@
+package logic.board;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Catalog of available levels, e.g. the levels bundled with the game.
+ * Sources are scanned in the background, only the metadata of each level is read: the header of binary levels,
+ * the index of level packs and a single hashing pass over json levels. A level is fully parsed when it is
+ * loaded, recently loaded levels are kept in a bounded cache.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class LevelCatalog implements AutoCloseable {
+    /**
+     * Count of parsed levels kept by default
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Source of levels, a single level or a level pack
+     * @param name name of source, e.g. its file name
+     * @param file file of source, packs are mapped if available. May be null.
+     * @param input opens the source
+     */
+    public record Source(String name, Path file, InputSupplier input) {
+        /**
+         * Source of a level or pack file
+         * @param file file
+         * @return source
+         */
+        public static Source of(Path file) {
+            return new Source(file.getFileName().toString(), file, () -> Files.newInputStream(file));
+        }
+
+        /**
+         * Source of a level or pack stream, e.g. a resource
+         * @param name name of source
+         * @param input opens the source
+         * @return source
+         */
+        public static Source of(String name, InputSupplier input) {
+            return new Source(name, null, input);
+        }
+    }
+
+    /**
+     * Opens an input stream
+     */
+    @FunctionalInterface
+    public interface InputSupplier {
+        /**
+         * Opens a new input stream
+         * @return input stream
+         * @throws IOException if stream can't be opened
+         */
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Level of the catalog
+     * @param source name of source
+     * @param index index of level in its pack, -1 if source is a single level
+     * @param info metadata of level
+     */
+    public record Entry(String source, int index, LevelInfo info) {
+        /**
+         * Name of level
+         * @param defaultName returned if level has no name
+         * @return name
+         */
+        public String getName(String defaultName) {
+            return info.getName(defaultName);
+        }
+    }
+
+    /**
+     * scans sources, a single thread keeps the order of entries
+     */
+    private final ExecutorService scanner;
+    /**
+     * scanned sources by name
+     */
+    private final Map<String, Source> sources = new HashMap<>();
+    /**
+     * opened packs by name of source
+     */
+    private final Map<String, LevelPack> packs = new HashMap<>();
+    /**
+     * recently loaded levels, least recently used first
+     */
+    private final LinkedHashMap<Entry, GameLevel> recent;
+
+    /**
+     * Instantiates a new catalog with {@link #DEFAULT_CAPACITY}
+     */
+    public LevelCatalog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new catalog
+     * @param capacity count of parsed levels kept
+     */
+    public LevelCatalog(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Entry, GameLevel> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.scanner = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "level-catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Scans sources in the background. Entries are reported in order of sources, levels of a pack in order
+     * of the pack. A source that can't be read is reported to onError and skipped.
+     *
+     * @param sources sources of levels
+     * @param onEntry called on the scanning thread for every level
+     * @param onError called on the scanning thread for every source that can't be read
+     * @return completes once all sources are scanned
+     */
+    public CompletableFuture<Void> scan(List<Source> sources, Consumer<Entry> onEntry, Consumer<Exception> onError) {
+        return CompletableFuture.runAsync(() -> {
+            for (Source source : sources) {
+                if (Thread.currentThread().isInterrupted()) return;
+                try {
+                    scan(source, onEntry);
+                } catch (IOException | RuntimeException e) {
+                    onError.accept(e);
+                }
+            }
+        }, scanner);
+    }
+
+    /**
+     * Loads the level of an entry, recently loaded levels are returned from the cache
+     * @param entry entry of this catalog
+     * @return level
+     * @throws IOException if level can't be read
+     */
+    public GameLevel load(Entry entry) throws IOException {
+        Source source;
+        LevelPack pack;
+        synchronized (this) {
+            var level = recent.get(entry);
+            if (level != null) return level;
+            source = sources.get(entry.source());
+            pack = packs.get(entry.source());
+        }
+        if (source == null) throw new IllegalArgumentException("Unknown entry: " + entry);
+
+        GameLevel level;
+        if (pack != null) {
+            level = pack.load(entry.index());
+        } else {
+            try (InputStream input = source.input().open()) {
+                level = GameLevel.load(input);
+            }
+        }
+
+        synchronized (this) {
+            recent.put(entry, level);
+        }
+        return level;
+    }
+
+    /**
+     * Stops scanning, levels can still be loaded
+     */
+    @Override
+    public void close() {
+        scanner.shutdownNow();
+    }
+
+    /**
+     * Scans a single source
+     * @param source source
+     * @param onEntry called for every level
+     * @throws IOException if source can't be read
+     */
+    private void scan(Source source, Consumer<Entry> onEntry) throws IOException {
+        synchronized (this) {
+            sources.put(source.name(), source);
+        }
+
+        LevelPack pack = null;
+        try (InputStream input = new BufferedInputStream(source.input().open())) {
+            var head = new byte[LevelBinaryFormat.headLength()];
+            input.mark(head.length);
+            final int length = input.readNBytes(head, 0, head.length);
+            input.reset();
+
+            if (!LevelPack.isPack(head, length)) {
+                onEntry.accept(new Entry(source.name(), -1, LevelInfo.read(input)));
+                return;
+            }
+            if (source.file() == null) pack = LevelPack.read(input);
+        }
+        if (pack == null) pack = LevelPack.open(source.file());
+
+        synchronized (this) {
+            packs.put(source.name(), pack);
+        }
+        for (int i = 0; i < pack.size(); i++) {
+            onEntry.accept(new Entry(source.name(), i, pack.getInfo(i)));
+        }
+    }
+}
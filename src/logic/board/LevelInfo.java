@@ -0,0 +1,121 @@
+package logic.board;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import logic.Direction;
+import logic.util.Vector;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Metadata of a level, read without building its board.
+ *
+ * @param name name of level, null if level has none
+ * @param width width of board
+ * @param height height of board
+ * @param hash {@link Board#getHash()} of the level's board
+ */
+public record LevelInfo(String name, int width, int height, long hash) {
+    /**
+     * Name of level
+     * @param defaultName returned if level has no name
+     * @return name
+     */
+    public String getName(String defaultName) {
+        return name != null ? name : defaultName;
+    }
+
+    /**
+     * Metadata of a loaded level
+     * @param level level
+     * @return metadata
+     */
+    public static LevelInfo of(GameLevel level) {
+        var board = level.getBoard();
+        return new LevelInfo(level.getName(), board.getWidth(), board.getHeight(), board.getHash());
+    }
+
+    /**
+     * Reads the metadata of a level in json or binary format, see {@link GameLevel#load(InputStream)}.
+     * Binary levels are read up to the end of their header.
+     *
+     * @param input input stream, not closed
+     * @return metadata
+     * @throws IOException if reading fails
+     */
+    public static LevelInfo read(InputStream input) throws IOException {
+        var in = new BufferedInputStream(input);
+        var head = new byte[LevelBinaryFormat.headLength()];
+        in.mark(head.length);
+        final int length = in.readNBytes(head, 0, head.length);
+        in.reset();
+
+        if (LevelBinaryFormat.isBinary(head, length)) return LevelBinaryFormat.readInfo(in);
+        return read(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the metadata of a level json in a single pass. The fields are hashed while they are read,
+     * neither the board nor its rows are kept. The level isn't validated.
+     *
+     * @param reader reader, not closed
+     * @return metadata
+     * @throws IOException if reading fails
+     */
+    public static LevelInfo read(Reader reader) throws IOException {
+        var in = new JsonReader(reader);
+        var fieldTypeAdapter = new FieldType.JsonAdapter();
+        var directionAdapter = new Direction.JsonAdapter();
+
+        String name = null;
+        Direction direction = null;
+        int width = 0;
+        int height = 0;
+        long hash = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+
+            switch (key) {
+                case "name" -> name = in.nextString();
+                case "botRotation" -> direction = directionAdapter.read(in);
+                case "field" -> {
+                    Vector start = null;
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        int x = 0;
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            var fieldType = fieldTypeAdapter.read(in);
+                            // rows of another length are rejected once the level is loaded
+                            if (height == 0 || x < width) {
+                                hash ^= Zobrist.field(height * width + x, fieldType);
+                                if (fieldType == FieldType.START && start == null) start = new Vector(x, height);
+                            }
+                            x++;
+                        }
+                        in.endArray();
+                        if (height == 0) width = x;
+                        height++;
+                    }
+                    in.endArray();
+                    hash ^= Zobrist.position(start);
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new LevelInfo(name, width, height, hash ^ Zobrist.shape(width, height) ^ Zobrist.direction(direction));
+    }
+}
@@ -0,0 +1,357 @@
+package logic.board;
+
+import logic.exception.validation.ValidationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Many levels in a single file. Levels are stored in {@link LevelBinaryFormat} behind an index of names,
+ * hashes and offsets, so a pack is listed by reading only its index and every level is decoded on demand,
+ * without touching the others.
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ * magic        4 bytes   "EBLP"
+ * version      1 byte    {@link #VERSION}
+ * count        4 bytes   count of levels
+ * index        per level:
+ *   offset     8 bytes   start of level, relative to the end of the index
+ *   length     4 bytes   size of level
+ *   hash       8 bytes   {@link Board#getHash()} of the level's board
+ *   name       4 bytes   size of name, -1 if level has none
+ *              n bytes   name as UTF-8
+ * levels       ...       levels in {@link LevelBinaryFormat}
+ * </pre>
+ * Packs are limited to {@link #MAX_SIZE} bytes, so every level is addressed by an int.
+ * Opened packs are read only and thread-safe.
+ */
+public final class LevelPack {
+    /**
+     * File extension of level packs
+     */
+    public static final String EXTENSION = ".eblp";
+    /**
+     * Current version of the format
+     */
+    public static final int VERSION = 2;
+    /**
+     * Maximum size of a pack in bytes, larger packs are neither read nor written
+     */
+    public static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    /**
+     * First bytes of every level pack
+     */
+    private static final byte[] MAGIC = {'E', 'B', 'L', 'P'};
+
+    /**
+     * levels, read only. Every access uses absolute positions, so the buffer is shared by all threads.
+     */
+    private final ByteBuffer data;
+    /**
+     * start of each level in data
+     */
+    private final int[] offsets;
+    /**
+     * size of each level
+     */
+    private final int[] lengths;
+    /**
+     * board hash of each level
+     */
+    private final long[] hashes;
+    /**
+     * name of each level, null if level has none
+     */
+    private final String[] names;
+
+    /**
+     * Reads the index of a pack
+     * @param data whole pack
+     */
+    private LevelPack(ByteBuffer data) {
+        try {
+            var magic = new byte[MAGIC.length];
+            data.get(0, magic);
+            if (!isPack(magic, magic.length)) throw new ValidationException("Not a level pack");
+            if (data.get(MAGIC.length) != VERSION) {
+                throw new ValidationException("Unsupported level pack version: " + data.get(MAGIC.length));
+            }
+
+            var in = data.duplicate().position(MAGIC.length + 1);
+            final int count = in.getInt();
+            // every index entry takes at least 24 bytes
+            if (count < 0 || count > in.remaining() / 24) throw new ValidationException("Invalid level count: " + count);
+
+            this.offsets = new int[count];
+            this.lengths = new int[count];
+            this.hashes = new long[count];
+            this.names = new String[count];
+            for (int i = 0; i < count; i++) {
+                final long offset = in.getLong();
+                if (offset < 0 || offset > MAX_SIZE) throw new ValidationException("Level %d exceeds pack".formatted(i));
+                offsets[i] = (int) offset;
+                lengths[i] = in.getInt();
+                hashes[i] = in.getLong();
+                names[i] = readName(in);
+            }
+
+            this.data = in.slice().asReadOnlyBuffer();
+            for (int i = 0; i < count; i++) {
+                if (lengths[i] < 0 || (long) offsets[i] + lengths[i] > this.data.limit()) {
+                    throw new ValidationException("Level %d exceeds pack".formatted(i));
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new ValidationException("Truncated level pack");
+        }
+    }
+
+    /**
+     * Opens a pack file. The file is mapped into memory, only the index is read.
+     * @param file pack file
+     * @return pack
+     * @throws IOException if file can't be mapped
+     * @throws ValidationException if file isn't a valid pack or exceeds {@link #MAX_SIZE}
+     */
+    public static LevelPack open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_SIZE) throw new ValidationException("Level pack exceeds %d bytes".formatted(MAX_SIZE));
+            // the mapping stays valid after the channel is closed
+            return new LevelPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a pack from a stream, e.g. a resource of a jar that can't be mapped
+     * @param input input stream, not closed
+     * @return pack
+     * @throws IOException if reading fails
+     * @throws ValidationException if data isn't a valid pack
+     */
+    public static LevelPack read(InputStream input) throws IOException {
+        return new LevelPack(ByteBuffer.wrap(input.readAllBytes()));
+    }
+
+    /**
+     * Writes levels as pack. The pack is assembled in a temporary file, so no level is held in memory.
+     * @param levels levels
+     * @param output output stream, flushed but not closed
+     * @throws IOException if writing fails
+     * @throws ValidationException if a level or the pack is too big to be read back
+     */
+    public static void write(List<GameLevel> levels, OutputStream output) throws IOException {
+        var file = Files.createTempFile("levels", EXTENSION);
+        try {
+            write(levels, file);
+            Files.copy(file, output);
+            output.flush();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Writes levels as pack file. Levels are streamed behind space reserved for the index,
+     * the index is written last.
+     * @param levels levels
+     * @param file pack file, replaced if it exists
+     * @throws IOException if writing fails
+     * @throws ValidationException if a level or the pack is too big to be read back
+     */
+    public static void write(List<GameLevel> levels, Path file) throws IOException {
+        final int count = levels.size();
+        var names = new byte[count][];
+        long start = MAGIC.length + 1 + 4;
+        for (int i = 0; i < count; i++) {
+            var name = levels.get(i).getName();
+            names[i] = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+            start += 24 + (names[i] == null ? 0 : names[i].length);
+        }
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var offsets = new long[count];
+            var lengths = new int[count];
+            var blobs = Channels.newOutputStream(channel.position(start));
+            for (int i = 0; i < count; i++) {
+                offsets[i] = channel.position() - start;
+                LevelBinaryFormat.write(levels.get(i), blobs);
+                lengths[i] = (int) (channel.position() - start - offsets[i]);
+            }
+            if (channel.position() > MAX_SIZE) throw new ValidationException("Level pack exceeds %d bytes".formatted(MAX_SIZE));
+
+            var index = new ByteArrayOutputStream((int) start);
+            var out = new DataOutputStream(index);
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+                out.writeInt(lengths[i]);
+                out.writeLong(levels.get(i).getBoard().getHash());
+                writeName(out, names[i]);
+            }
+
+            var buffer = ByteBuffer.wrap(index.toByteArray());
+            while (buffer.hasRemaining()) channel.write(buffer, buffer.position());
+        }
+    }
+
+    /**
+     * Does data start like a level pack?
+     * @param head first bytes of data
+     * @param length count of valid bytes in head
+     * @return true, if data starts with the magic of this format
+     */
+    public static boolean isPack(byte[] head, int length) {
+        if (length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Count of levels
+     * @return count of levels
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Name of a level
+     * @param index index of level
+     * @return name, null if level has none
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Name of a level
+     * @param index index of level
+     * @param defaultName returned if level has no name
+     * @return name
+     */
+    public String getName(int index, String defaultName) {
+        return names[index] != null ? names[index] : defaultName;
+    }
+
+    /**
+     * Board hash of a level, see {@link Board#getHash()}
+     * @param index index of level
+     * @return hash
+     */
+    public long getHash(int index) {
+        return hashes[index];
+    }
+
+    /**
+     * Metadata of a level, only the header of the level is read
+     * @param index index of level
+     * @return metadata
+     * @throws ValidationException if level is damaged
+     */
+    public LevelInfo getInfo(int index) {
+        try {
+            return LevelBinaryFormat.readInfo(new BufferInputStream(data.slice(offsets[index], lengths[index])));
+        } catch (IOException e) {
+            throw new ValidationException("Level %d is truncated".formatted(index));
+        }
+    }
+
+    /**
+     * Decodes a level. Other levels of the pack aren't read.
+     * @param index index of level
+     * @return new level
+     * @throws ValidationException if level is damaged
+     */
+    public GameLevel load(int index) {
+        try {
+            return LevelBinaryFormat.read(new BufferInputStream(data.slice(offsets[index], lengths[index])), lengths[index]);
+        } catch (IOException e) {
+            throw new ValidationException("Level %d is truncated".formatted(index));
+        }
+    }
+
+    /**
+     * Writes a name of the index
+     * @param out index
+     * @param name name as UTF-8, may be null
+     * @throws IOException if writing fails
+     */
+    private static void writeName(DataOutputStream out, byte[] name) throws IOException {
+        if (name == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(name.length);
+        out.write(name);
+    }
+
+    /**
+     * Reads a name of the index
+     * @param in index, positioned at the name
+     * @return name, may be null
+     */
+    private static String readName(ByteBuffer in) {
+        final int length = in.getInt();
+        if (length < 0) return null;
+        if (length > in.remaining()) throw new BufferUnderflowException();
+        var bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Input stream over a buffer, reads don't copy the buffer
+     */
+    private static final class BufferInputStream extends InputStream {
+        /**
+         * remaining bytes
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Instantiates a new stream
+         * @param buffer bytes between position and limit are read
+         */
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package logic.board;
+
+import com.google.gson.stream.JsonWriter;
+import logic.Bot;
+import logic.procedure.Instruction;
+import logic.procedure.Procedure;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates and solves a stream of levels, one level json per line (NDJSON), e.g. for CI.
+ * Every level is parsed, analysed, solved, and the solution is executed by a {@link Bot} to verify it.
+ * Results are written as NDJSON in the order of the input, one line per level:
+ * <pre>
+ * {"line":1,"name":"Level 0","status":"VALID","problems":[],"solution":[["FORWARD","EXIT"],[],[]],"verified":true}
+ * </pre>
+ * Levels are processed by {@code parallelism} threads while the input is read and the results are written.
+ * At most {@code capacity} levels are read ahead of the output, so memory doesn't grow with the input.
+ * A level that is processed longer than the timeout is interrupted and reported as
+ * {@link BatchAnalyzer.Status#TIMED_OUT}, so it can't stall the output. Blank lines are skipped.
+ * <p>
+ * Levels are analysed without {@link AnalysisCache}, like {@link BatchAnalyzer}.
+ */
+public final class LevelPipeline implements AutoCloseable {
+    /**
+     * marks the end of the input in the queue of results
+     */
+    private static final CompletableFuture<String> END = CompletableFuture.completedFuture(null);
+    /**
+     * Time a level may be processed by default
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(1);
+
+    /**
+     * maximum count of levels read ahead of the output
+     */
+    private final int capacity;
+    /**
+     * time a level may be processed before it is reported as timed out
+     */
+    private final Duration timeout;
+    /**
+     * processes levels
+     */
+    private final ExecutorService workers;
+    /**
+     * times out levels, a finished level cancels and removes its timeout, so it isn't retained until the timeout
+     */
+    private final ScheduledThreadPoolExecutor timeouts;
+
+    /**
+     * Instantiates a new pipeline with the {@link #DEFAULT_TIMEOUT}
+     * @param parallelism count of levels processed at the same time
+     * @param capacity maximum count of levels read ahead of the output
+     */
+    public LevelPipeline(int parallelism, int capacity) {
+        this(parallelism, capacity, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Instantiates a new pipeline
+     * @param parallelism count of levels processed at the same time
+     * @param capacity maximum count of levels read ahead of the output
+     * @param timeout time a level may be processed before it is reported as timed out
+     */
+    public LevelPipeline(int parallelism, int capacity, Duration timeout) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        if (timeout.isNegative() || timeout.isZero()) throw new IllegalArgumentException("timeout must be positive: " + timeout);
+
+        this.capacity = capacity;
+        this.timeout = timeout;
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            var thread = new Thread(runnable, "level-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "level-pipeline-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeouts.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Processes levels of stdin and writes results to stdout.
+     * Takes the parallelism as optional argument, defaults to the count of processors.
+     * @param args [parallelism]
+     * @throws Exception if reading or writing fails
+     */
+    public static void main(String[] args) throws Exception {
+        final int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        try (var pipeline = new LevelPipeline(parallelism, 4 * parallelism)) {
+            var output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            pipeline.run(new InputStreamReader(System.in, StandardCharsets.UTF_8), output);
+            output.flush();
+        }
+    }
+
+    /**
+     * Processes all levels of input. Neither input nor output are closed.
+     * @param input one level json per line
+     * @param output one result json per level, flushed after the last result
+     * @return count of processed levels
+     * @throws IOException if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting for results
+     * @throws RuntimeException if writing a result fails otherwise
+     */
+    public long run(Reader input, Writer output) throws IOException, InterruptedException {
+        final BufferedReader lines = input instanceof BufferedReader reader ? reader : new BufferedReader(input);
+        final BlockingQueue<CompletableFuture<String>> pending = new ArrayBlockingQueue<>(capacity);
+
+        final Throwable[] writeError = new Throwable[1];
+        var writer = new Thread(() -> {
+            try {
+                for (var result = pending.take(); result != END; result = pending.take()) {
+                    // after a failed write results are still taken, so the reader never blocks forever
+                    if (writeError[0] != null) continue;
+                    try {
+                        output.write(result.join());
+                        output.write('\n');
+                    } catch (Throwable e) {
+                        writeError[0] = e;
+                    }
+                }
+                if (writeError[0] == null) output.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                writeError[0] = e;
+            }
+        }, "level-pipeline-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        long count = 0;
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                final long number = lineNumber;
+                final String json = line;
+                final var task = new Task(number, json);
+                workers.execute(task);
+                // blocks while capacity results are waiting for the writer
+                pending.put(task.result.exceptionally(error -> failed(number, null, error)));
+                count++;
+            }
+        } finally {
+            pending.put(END);
+            writer.join();
+        }
+
+        if (writeError[0] instanceof IOException e) throw e;
+        if (writeError[0] instanceof RuntimeException e) throw e;
+        if (writeError[0] instanceof Error e) throw e;
+        return count;
+    }
+
+    /**
+     * Processes a level on a worker. The timeout starts when the level is taken by a worker,
+     * not while it waits behind other levels.
+     */
+    private final class Task implements Runnable {
+        /**
+         * line of level in input
+         */
+        private final long lineNumber;
+        /**
+         * json of level
+         */
+        private final String json;
+        /**
+         * result json, completed by the worker or by the timeout, whatever comes first
+         */
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        /**
+         * worker processing the level, null before and after
+         */
+        private Thread worker;
+
+        /**
+         * Instantiates a new task
+         * @param lineNumber line of level in input
+         * @param json json of level
+         */
+        private Task(long lineNumber, String json) {
+            this.lineNumber = lineNumber;
+            this.json = json;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                worker = Thread.currentThread();
+            }
+            final ScheduledFuture<?> timer = timeouts.schedule(this::timeOut, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            String output = null;
+            Throwable error = null;
+            try {
+                output = process(lineNumber, json);
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                timer.cancel(false);
+                synchronized (this) {
+                    worker = null;
+                    // an interrupt of the timeout must not hit the next level of this worker
+                    Thread.interrupted();
+                }
+            }
+            // completed once the timeout is cancelled, a written level is never retained by its timeout
+            if (error == null) result.complete(output);
+            else result.completeExceptionally(error);
+        }
+
+        /**
+         * Reports the level as timed out and interrupts the worker, if it is still processing the level
+         */
+        private void timeOut() {
+            if (!result.complete(timedOut(lineNumber))) return;
+            synchronized (this) {
+                if (worker != null) worker.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops all threads
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        timeouts.shutdownNow();
+    }
+
+    /**
+     * Count of timeouts that are scheduled, but neither fired nor cancelled yet
+     * @return count of scheduled timeouts
+     */
+    int scheduledTimeouts() {
+        return timeouts.getQueue().size();
+    }
+
+    /**
+     * Parses, analyses, solves and verifies a level
+     * @param lineNumber line of level in input
+     * @param json json of level
+     * @return result json
+     */
+    private static String process(long lineNumber, String json) {
+        GameLevel level;
+        try {
+            level = Objects.requireNonNull(GameLevel.fromJson(json), "Level is null");
+        } catch (Exception e) {
+            return failed(lineNumber, null, e);
+        }
+
+        AnalysisCache.Analysis analysis;
+        boolean verified;
+        try {
+            analysis = level.getBoard().analyzeUncached();
+            verified = !analysis.solution().isEmpty() && verify(level, analysis.solution());
+        } catch (Exception e) {
+            return failed(lineNumber, level.getName(), e);
+        }
+
+        var result = new StringWriter();
+        try (var out = new JsonWriter(result)) {
+            out.beginObject();
+            out.name("line").value(lineNumber);
+            out.name("name").value(level.getName());
+            out.name("status").value((analysis.problems().isEmpty()
+                    ? BatchAnalyzer.Status.VALID
+                    : BatchAnalyzer.Status.INVALID).name());
+
+            out.name("problems").beginArray();
+            for (Board.Problem problem : analysis.problems()) {
+                out.beginObject();
+                out.name("type").value(problem.problemType().name());
+                if (problem.fieldType() != null) out.name("field").value(problem.fieldType().name());
+                if (problem.position() != null) {
+                    out.name("x").value(problem.position().X());
+                    out.name("y").value(problem.position().Y());
+                }
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("solution").beginArray();
+            for (Procedure procedure : analysis.solution()) {
+                out.beginArray();
+                for (Instruction instruction : procedure) out.value(instruction.name());
+                out.endArray();
+            }
+            out.endArray();
+
+            out.name("verified").value(verified);
+            out.endObject();
+        } catch (IOException e) {
+            // a StringWriter doesn't fail
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Executes a solution
+     * @param level level
+     * @param solution 3 procedures
+     * @return true, if the bot reaches the exit
+     */
+    private static boolean verify(GameLevel level, List<Procedure> solution) {
+        var bot = new Bot(level.getBoard());
+        return bot.execute(
+                new Procedure(solution.get(0).getId(), solution.get(0)),
+                new Procedure(solution.get(1).getId(), solution.get(1)),
+                new Procedure(solution.get(2).getId(), solution.get(2))
+        ).successful();
+    }
+
+    /**
+     * Result of a level that wasn't processed in time
+     * @param lineNumber line of level in input
+     * @return result json with {@link BatchAnalyzer.Status#TIMED_OUT}
+     */
+    private static String timedOut(long lineNumber) {
+        var result = new StringWriter();
+        try (var out = new JsonWriter(result)) {
+            out.beginObject();
+            out.name("line").value(lineNumber);
+            out.name("status").value(BatchAnalyzer.Status.TIMED_OUT.name());
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Result of a level that couldn't be processed
+     * @param lineNumber line of level in input
+     * @param name name of level, may be null
+     * @param error cause
+     * @return result json with {@link BatchAnalyzer.Status#FAILED}
+     */
+    private static String failed(long lineNumber, String name, Throwable error) {
+        var result = new StringWriter();
+        try (var out = new JsonWriter(result)) {
+            out.beginObject();
+            out.name("line").value(lineNumber);
+            out.name("name").value(name);
+            out.name("status").value(BatchAnalyzer.Status.FAILED.name());
+            out.name("error").value(error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName());
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+}
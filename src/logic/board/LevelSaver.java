@@ -0,0 +1,236 @@
+package logic.board;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Saves levels in the background.
+ * A level is written to a temporary file next to its target, forced to disk and then moved over the target,
+ * so the target either keeps its old content or has the complete new one, even if the application crashes.
+ * The target keeps its permissions, a new file gets the default permissions of the platform.
+ * Files ending with {@link LevelBinaryFormat#EXTENSION} are written in binary format, all others as json.
+ * <p>
+ * Saves of the same file that are requested while an earlier save is still waiting are coalesced:
+ * only the latest level is written and all requests complete with that write.
+ * This class is thread-safe.
+ */
+public final class LevelSaver implements AutoCloseable {
+    /**
+     * writes levels, one at a time
+     */
+    private final ExecutorService writer;
+    /**
+     * saves that haven't started yet, by target file
+     */
+    private final Map<Path, PendingSave> pending = new HashMap<>();
+
+    /**
+     * Save waiting to be written
+     */
+    private static final class PendingSave {
+        /**
+         * latest level requested for the file
+         */
+        private GameLevel level;
+        /**
+         * completes once the file is written
+         */
+        private final CompletableFuture<Path> done = new CompletableFuture<>();
+
+        /**
+         * Instantiates a new pending save
+         * @param level level to write
+         */
+        private PendingSave(GameLevel level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * Instantiates a new saver
+     */
+    public LevelSaver() {
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "level-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Saves a level in the background. The level must not be changed afterwards,
+     * pass a copy of a level that is still edited.
+     *
+     * @param level level
+     * @param file target file
+     * @return completes with the target file once it is written, or exceptionally if writing failed
+     */
+    public CompletableFuture<Path> save(GameLevel level, Path file) {
+        final Path target = file.toAbsolutePath().normalize();
+        synchronized (pending) {
+            var save = pending.get(target);
+            if (save != null) {
+                save.level = level;
+                return save.done;
+            }
+
+            save = new PendingSave(level);
+            pending.put(target, save);
+            writer.execute(() -> write(target));
+            return save.done;
+        }
+    }
+
+    /**
+     * Stops the saver after all requested saves are written
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+    }
+
+    /**
+     * Writes the latest level requested for a file
+     * @param target target file
+     */
+    private void write(Path target) {
+        PendingSave save;
+        synchronized (pending) {
+            // later requests start a new save
+            save = pending.remove(target);
+        }
+
+        try {
+            writeAtomically(target, output -> write(save.level, target, output));
+            save.done.complete(target);
+        } catch (Exception e) {
+            save.done.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Writes a file atomically: content is written to a temporary file next to the target,
+     * forced to disk and moved over the target. The temporary file gets the permissions of the target,
+     * the directory is forced to disk after the move, so the new file survives a crash.
+     * @param target target file
+     * @param content writes the content, the stream is flushed afterwards
+     * @throws IOException if writing fails, target is unchanged then
+     */
+    static void writeAtomically(Path target, Content content) throws IOException {
+        final Path directory = target.getParent() != null ? target.getParent() : Path.of("");
+        final Path temp = createTempFile(directory, target);
+        try {
+            try (var channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                var output = new BufferedOutputStream(Channels.newOutputStream(channel));
+                content.writeTo(output);
+                output.flush();
+                channel.force(true);
+            }
+            copyPermissions(target, temp);
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        forceDirectory(directory);
+    }
+
+    /**
+     * Creates an empty temporary file next to a target. It's created like any new file, with the default
+     * permissions of the platform, unlike {@link Files#createTempFile} which restricts it to the owner.
+     * @param directory directory of target
+     * @param target target file
+     * @return temporary file
+     * @throws IOException if the file can't be created
+     */
+    private static Path createTempFile(Path directory, Path target) throws IOException {
+        while (true) {
+            final String suffix = Long.toUnsignedString(ThreadLocalRandom.current().nextLong());
+            try {
+                return Files.createFile(directory.resolve("." + target.getFileName() + suffix + ".tmp"));
+            } catch (FileAlreadyExistsException e) {
+                // name is taken, try another one
+            }
+        }
+    }
+
+    /**
+     * Copies the POSIX permissions of a file, does nothing if source doesn't exist or the platform has none
+     * @param source file whose permissions are copied
+     * @param target file receiving the permissions
+     * @throws IOException if permissions can't be read or written
+     */
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        try {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        } catch (NoSuchFileException | UnsupportedOperationException e) {
+            // new file or no POSIX permissions, the defaults of the platform apply
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so a moved file survives a crash.
+     * Some platforms can't open directories, e.g. Windows, the move is durable there or can't be forced.
+     * @param directory directory
+     */
+    private static void forceDirectory(Path directory) {
+        try (var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // the file is written, only its durability after a crash isn't guaranteed
+        }
+    }
+
+    /**
+     * Content of a file written by {@link #writeAtomically(Path, Content)}
+     */
+    @FunctionalInterface
+    interface Content {
+        /**
+         * Writes the content
+         * @param output output, not closed
+         * @throws IOException if writing fails
+         */
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Streams a level in the format of the target
+     * @param level level
+     * @param target target file, decides the format
+     * @param output output, flushed but not closed
+     * @throws IOException if writing fails
+     */
+    private static void write(GameLevel level, Path target, OutputStream output) throws IOException {
+        if (target.getFileName().toString().endsWith(LevelBinaryFormat.EXTENSION)) {
+            LevelBinaryFormat.write(level, output);
+        } else {
+            var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            level.toJson(writer);
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,568 @@
+package logic.board;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import logic.exception.validation.MissingFieldException;
+import logic.exception.validation.MissingKeyException;
+import logic.procedure.Instruction;
+import logic.procedure.Procedure;
+import logic.util.Log;
+import logic.util.Vector;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local content-addressed store of levels, keyed by {@link Board#getContentHash()}.
+ * The hash covers the shape, the fields and the direction of the bot with the bot on start, so every distinct
+ * board is stored once, no matter how often and under which names it is saved, and a board is found again
+ * wherever its bot stands. Levels are laid out in a directory:
+ * <pre>
+ * objects/&lt;hash&gt;.eblv     board and start direction in binary format, without name
+ * analyses/v&lt;version&gt;/&lt;hash&gt;.json    problems and solution of the board
+ * names.properties          name of level -&gt; hash
+ * </pre>
+ * Analyses are kept per {@link #ANALYSIS_VERSION}, analyses of other versions are ignored, so boards are analysed
+ * again once the analysis changed.
+ * Which boards are stored and solved is kept in memory, so "already seen" and "already solved" are answered
+ * without touching the disk and without waiting for a write. Files are written atomically, a crash never leaves
+ * a partial object. The *Async methods read and write on a background thread, e.g. for the UI thread.
+ * <p>
+ * Hashes are only used to find a board, its content is compared before a stored board or analysis is used,
+ * so a hash collision is never mistaken for a known board. A board colliding with a stored one isn't stored,
+ * which is logged. Boards without start can't be read back, like in json,
+ * so they aren't stored. This class is thread-safe.
+ */
+public final class LevelStore {
+    /**
+     * Version of stored analyses. Increase it whenever the problems or the solution found for a board change,
+     * e.g. with a new solver or optimizer, or the json of analyses changes.
+     * Version 2 is the first with the state space solver, analyses stored before had no version.
+     */
+    public static final int ANALYSIS_VERSION = 2;
+
+    /**
+     * directory of boards
+     */
+    private static final String OBJECTS = "objects";
+    /**
+     * directory of analyses
+     */
+    private static final String ANALYSES = "analyses";
+    /**
+     * file mapping names to hashes
+     */
+    private static final String NAMES = "names.properties";
+    /**
+     * extension of analysis files
+     */
+    private static final String ANALYSIS_EXTENSION = ".json";
+
+    /**
+     * root directory
+     */
+    private final Path root;
+    /**
+     * hashes of stored boards
+     */
+    private final Set<Long> objects = ConcurrentHashMap.newKeySet();
+    /**
+     * hashes of stored analyses
+     */
+    private final Set<Long> analyses = ConcurrentHashMap.newKeySet();
+    /**
+     * hash by name of level
+     */
+    private final Map<String, Long> names = new ConcurrentHashMap<>();
+    /**
+     * reads and writes of the *Async methods, one at a time in order of request
+     */
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "level-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Instantiates a new store
+     * @param root root directory
+     */
+    private LevelStore(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Opens a store, its directory is created if it doesn't exist yet
+     * @param root root directory
+     * @return store
+     * @throws IOException if directory can't be read or created
+     */
+    public static LevelStore open(Path root) throws IOException {
+        var store = new LevelStore(root);
+        Files.createDirectories(root.resolve(OBJECTS));
+        Files.createDirectories(store.analysisDirectory());
+
+        store.scan(root.resolve(OBJECTS), LevelBinaryFormat.EXTENSION, store.objects);
+        store.scan(store.analysisDirectory(), ANALYSIS_EXTENSION, store.analyses);
+
+        var properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(root.resolve(NAMES), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            // nothing named yet
+        }
+        for (String name : properties.stringPropertyNames()) {
+            var hash = parseHash(properties.getProperty(name));
+            if (hash.isPresent()) store.names.put(name, hash.getAsLong());
+        }
+        return store;
+    }
+
+    /**
+     * Stores a level. The board is only written if it isn't stored yet, a named level also maps its name
+     * to the board. If a different board with the same hash is stored, neither board nor name are stored.
+     *
+     * @param level level
+     * @return content hash of level's board
+     * @throws IOException if writing fails
+     * @throws MissingFieldException if board has no start
+     */
+    public synchronized long put(GameLevel level) throws IOException {
+        final long hash = level.getBoard().getContentHash();
+        if (!putBoard(level.getBoard(), hash)) return hash;
+
+        if (level.getName() != null && !Objects.equals(names.get(level.getName()), hash)) {
+            names.put(level.getName(), hash);
+            writeNames();
+        }
+        return hash;
+    }
+
+    /**
+     * Stores a level in the background, see {@link #put(GameLevel)}. The level is copied first,
+     * it may be changed once this method returns.
+     *
+     * @param level level
+     * @return completes with the content hash of level's board once it is stored, or exceptionally if storing failed
+     */
+    public CompletableFuture<Long> putAsync(GameLevel level) {
+        var copy = new GameLevel(new Board(level.getBoard()));
+        copy.setName(level.getName());
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return put(copy);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, worker);
+    }
+
+    /**
+     * Completes once all reads and writes requested so far are done
+     * @return future
+     */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(() -> {}, worker);
+    }
+
+    /**
+     * Whether a board with this hash is stored
+     * @param hash {@link Board#getContentHash()}
+     * @return true, if stored
+     */
+    public boolean contains(long hash) {
+        return objects.contains(hash);
+    }
+
+    /**
+     * Whether an analysis of a board with this hash is stored
+     * @param hash {@link Board#getContentHash()}
+     * @return true, if analysed
+     */
+    public boolean isAnalyzed(long hash) {
+        return analyses.contains(hash);
+    }
+
+    /**
+     * Loads a stored board
+     * @param hash {@link Board#getContentHash()}
+     * @return level without name, null if no board with this hash is stored
+     * @throws IOException if reading fails
+     */
+    public synchronized GameLevel get(long hash) throws IOException {
+        if (!objects.contains(hash)) return null;
+        try (InputStream input = Files.newInputStream(object(hash))) {
+            return LevelBinaryFormat.read(input, Files.size(object(hash)));
+        }
+    }
+
+    /**
+     * Hash of a named level
+     * @param name name of level
+     * @return content hash of level's board, empty if no level has this name
+     */
+    public OptionalLong hashOf(String name) {
+        var hash = names.get(name);
+        return hash != null ? OptionalLong.of(hash) : OptionalLong.empty();
+    }
+
+    /**
+     * Names of stored levels
+     * @return sorted, unmodifiable names
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(new TreeMap<>(names).keySet());
+    }
+
+    /**
+     * Count of stored boards
+     * @return count of boards
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * Loads the analysis of a board
+     * @param board board, the position of its bot doesn't matter
+     * @return analysis, null if board wasn't analysed yet
+     * @throws IOException if reading fails
+     */
+    public synchronized AnalysisCache.Analysis findAnalysis(Board board) throws IOException {
+        final long hash = board.getContentHash();
+        if (!analyses.contains(hash)) return null;
+
+        var stored = get(hash);
+        if (stored == null || !stored.getBoard().equals(canonical(board))) return null;
+
+        try (Reader reader = Files.newBufferedReader(analysis(hash), StandardCharsets.UTF_8)) {
+            return readAnalysis(reader);
+        }
+    }
+
+    /**
+     * Loads the analysis of a board in the background, see {@link #findAnalysis(Board)}
+     * @param board board, copied first
+     * @return completes with the analysis or null, exceptionally if reading failed
+     */
+    CompletableFuture<AnalysisCache.Analysis> findAnalysisAsync(Board board) {
+        var copy = new Board(board);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return findAnalysis(copy);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, worker);
+    }
+
+    /**
+     * Stores the analysis of a board, the board is stored too.
+     * Analyses of boards without start aren't stored, finding the missing start is cheap.
+     * Neither are analyses of boards colliding with a stored board.
+     * @param board analysed board, the position of its bot doesn't matter
+     * @param analysis analysis of board
+     * @throws IOException if writing fails
+     */
+    public synchronized void putAnalysis(Board board, AnalysisCache.Analysis analysis) throws IOException {
+        if (board.count(FieldType.START) == 0) return;
+
+        final long hash = board.getContentHash();
+        if (!putBoard(board, hash)) return;
+        LevelSaver.writeAtomically(analysis(hash), output -> {
+            var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            writeAnalysis(analysis, writer);
+            writer.flush();
+        });
+        analyses.add(hash);
+    }
+
+    /**
+     * Stores the analysis of a board in the background, see {@link #putAnalysis(Board, AnalysisCache.Analysis)}
+     * @param board analysed board, copied first
+     * @param analysis analysis of board, must not be changed afterwards
+     * @return completes once the analysis is stored, exceptionally if storing failed
+     */
+    CompletableFuture<Void> putAnalysisAsync(Board board, AnalysisCache.Analysis analysis) {
+        var copy = new Board(board);
+        return CompletableFuture.runAsync(() -> {
+            try {
+                putAnalysis(copy, analysis);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, worker);
+    }
+
+    @Override
+    public String toString() {
+        return "LevelStore[root=%s, boards=%d, analyses=%d, names=%d]".formatted(root, objects.size(), analyses.size(), names.size());
+    }
+
+    /**
+     * Stores a board if it isn't stored yet
+     * @param board board
+     * @param hash content hash of board
+     * @return true, if this board is stored, false if a different board with the same hash is stored
+     * @throws IOException if writing fails
+     * @throws MissingFieldException if board has no start
+     */
+    private boolean putBoard(Board board, long hash) throws IOException {
+        // the binary format requires a start, such a board couldn't be read back
+        if (board.count(FieldType.START) == 0) throw new MissingFieldException(FieldType.START);
+
+        final Board canonical = canonical(board);
+        if (objects.contains(hash)) {
+            if (get(hash).getBoard().equals(canonical)) return true;
+            Log.warning("Hash collision in %s, board isn't stored: %s\n", this, format(hash));
+            return false;
+        }
+
+        var level = new GameLevel(canonical, canonical.getDirectionOfBot());
+        LevelSaver.writeAtomically(object(hash), output -> LevelBinaryFormat.write(level, output));
+        objects.add(hash);
+        return true;
+    }
+
+    /**
+     * Copy of a board with the bot on start, as it is read back from the store
+     * @param board board
+     * @return copy of board
+     */
+    private static Board canonical(Board board) {
+        var copy = new Board(board);
+        copy.setBot(board.getStartPosition());
+        return copy;
+    }
+
+    /**
+     * Writes the name mapping
+     * @throws IOException if writing fails
+     */
+    private void writeNames() throws IOException {
+        var properties = new Properties();
+        names.forEach((name, hash) -> properties.setProperty(name, format(hash)));
+        LevelSaver.writeAtomically(root.resolve(NAMES), output -> {
+            var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            properties.store(writer, null);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Adds hashes of all files in a directory of the store
+     * @param directory directory
+     * @param extension extension of files
+     * @param hashes receives hashes
+     * @throws IOException if directory can't be read
+     */
+    private void scan(Path directory, String extension, Set<Long> hashes) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + extension)) {
+            for (Path file : files) {
+                var name = file.getFileName().toString();
+                parseHash(name.substring(0, name.length() - extension.length())).ifPresent(hashes::add);
+            }
+        }
+    }
+
+    /**
+     * File of a board
+     * @param hash hash of board
+     * @return path
+     */
+    private Path object(long hash) {
+        return root.resolve(OBJECTS).resolve(format(hash) + LevelBinaryFormat.EXTENSION);
+    }
+
+    /**
+     * File of an analysis
+     * @param hash hash of board
+     * @return path
+     */
+    private Path analysis(long hash) {
+        return analysisDirectory().resolve(format(hash) + ANALYSIS_EXTENSION);
+    }
+
+    /**
+     * Directory of analyses of the current {@link #ANALYSIS_VERSION}
+     * @return path
+     */
+    private Path analysisDirectory() {
+        return root.resolve(ANALYSES).resolve("v" + ANALYSIS_VERSION);
+    }
+
+    /**
+     * Formats a hash as 16 hex digits
+     * @param hash hash
+     * @return hex string
+     */
+    private static String format(long hash) {
+        return "%016x".formatted(hash);
+    }
+
+    /**
+     * Parses a hash formatted by {@link #format(long)}, other files in the store are ignored
+     * @param hex hex string
+     * @return hash, empty if string isn't a hash
+     */
+    private static OptionalLong parseHash(String hex) {
+        if (hex.length() != 16) return OptionalLong.empty();
+        try {
+            return OptionalLong.of(Long.parseUnsignedLong(hex, 16));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Writes an analysis as json:
+     * <pre>
+     * {"problems":[{"type":"NOT_REACHABLE","field":"COIN","x":1,"y":2}],"solution":[{"id":0,"instructions":["EXIT"]}]}
+     * </pre>
+     * @param analysis analysis
+     * @param writer writer, not closed
+     * @throws IOException if writing fails
+     */
+    private static void writeAnalysis(AnalysisCache.Analysis analysis, Writer writer) throws IOException {
+        var out = new JsonWriter(writer);
+        out.beginObject();
+
+        out.name("problems").beginArray();
+        for (Board.Problem problem : analysis.problems()) {
+            out.beginObject();
+            out.name("type").value(problem.problemType().name());
+            if (problem.fieldType() != null) out.name("field").value(problem.fieldType().name());
+            if (problem.position() != null) {
+                out.name("x").value(problem.position().X());
+                out.name("y").value(problem.position().Y());
+            }
+            out.endObject();
+        }
+        out.endArray();
+
+        out.name("solution").beginArray();
+        for (Procedure procedure : analysis.solution()) {
+            out.beginObject();
+            out.name("id").value(procedure.getId());
+            out.name("instructions").beginArray();
+            for (Instruction instruction : procedure) out.value(instruction.name());
+            out.endArray();
+            out.endObject();
+        }
+        out.endArray();
+
+        out.endObject();
+        out.flush();
+    }
+
+    /**
+     * Reads an analysis written by {@link #writeAnalysis(AnalysisCache.Analysis, Writer)}
+     * @param reader reader, not closed
+     * @return analysis
+     * @throws IOException if reading fails
+     */
+    private static AnalysisCache.Analysis readAnalysis(Reader reader) throws IOException {
+        var in = new JsonReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader));
+        List<Board.Problem> problems = new ArrayList<>();
+        List<Procedure> solution = new ArrayList<>();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "problems" -> {
+                    in.beginArray();
+                    while (in.hasNext()) problems.add(readProblem(in));
+                    in.endArray();
+                }
+                case "solution" -> {
+                    in.beginArray();
+                    while (in.hasNext()) solution.add(readProcedure(in));
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new AnalysisCache.Analysis(problems, solution);
+    }
+
+    /**
+     * Reads a problem of an analysis
+     * @param in json reader
+     * @return problem
+     * @throws IOException if reading fails
+     */
+    private static Board.Problem readProblem(JsonReader in) throws IOException {
+        Board.ProblemType type = null;
+        FieldType field = null;
+        Integer x = null;
+        Integer y = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "type" -> type = Board.ProblemType.valueOf(in.nextString());
+                case "field" -> field = FieldType.valueOf(in.nextString());
+                case "x" -> x = in.nextInt();
+                case "y" -> y = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (type == null) throw new MissingKeyException("type");
+        return new Board.Problem(type, field, x != null && y != null ? new Vector(x, y) : null);
+    }
+
+    /**
+     * Reads a procedure of a solution
+     * @param in json reader
+     * @return procedure
+     * @throws IOException if reading fails
+     */
+    private static Procedure readProcedure(JsonReader in) throws IOException {
+        int id = -1;
+        List<Instruction> instructions = new ArrayList<>();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = in.nextInt();
+                case "instructions" -> {
+                    in.beginArray();
+                    while (in.hasNext()) instructions.add(Instruction.valueOf(in.nextString()));
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new Procedure(id, instructions);
+    }
+}
@@ -0,0 +1,406 @@
+package logic.board;
+
+import logic.util.Vector;
+
+import java.util.Arrays;
+
+/**
+ * Bit-parallel reachability of a {@link Board}.
+ * Walkable and jumpable fields are held as bitboards (one bit per field, every row starts at a new word).
+ * Starting at the origin, whole runs of walkable fields are filled with a scanline flood fill. Runs and
+ * the fields next to them are found with word operations on the bitboards, so the cost depends on the
+ * number of runs and words, not on the number of fields.
+ * <p>
+ * After a single field changed, {@link #update(Board, int, int)} adapts the reachable fields: a change that can
+ * only add reachable fields continues the fill from the changed field, only a change that can cut off fields
+ * starts the fill from the origin again.
+ */
+public final class Reachability {
+    /**
+     * Bits per word
+     */
+    private static final int WORD_SIZE = Long.SIZE;
+
+    /**
+     * width of board
+     */
+    private final int width;
+    /**
+     * height of board
+     */
+    private final int height;
+    /**
+     * count of words per row
+     */
+    private final int words;
+    /**
+     * fields the bot can walk on
+     */
+    private final long[] walkable;
+    /**
+     * fields the bot can jump over
+     */
+    private final long[] jumpable;
+    /**
+     * fields reachable from origin
+     */
+    private final long[] reachable;
+    /**
+     * position reachability is calculated from, may be null
+     */
+    private final Vector origin;
+    /**
+     * Work queue of filled runs that still have to be scanned, three ints per run (y, from, to)
+     */
+    private int[] queue;
+    /**
+     * count of used ints in queue
+     */
+    private int queueSize;
+
+    /**
+     * Instantiates a new Reachability. Use {@link #of(Board, Vector)}.
+     * @param width width of board
+     * @param height height of board
+     * @param origin position reachability is calculated from
+     */
+    private Reachability(int width, int height, Vector origin) {
+        this.width = width;
+        this.height = height;
+        this.origin = origin;
+        this.words = (width + WORD_SIZE - 1) / WORD_SIZE;
+        this.walkable = new long[words * height];
+        this.jumpable = new long[words * height];
+        this.reachable = new long[words * height];
+        this.queue = new int[0];
+    }
+
+    /**
+     * Calculates all fields reachable from origin
+     * @param board board
+     * @param origin position reachability is calculated from
+     * @return reachability of board
+     */
+    public static Reachability of(Board board, Vector origin) {
+        var reachability = new Reachability(board.getWidth(), board.getHeight(), origin);
+
+        for (Tile tile : board.tiles()) {
+            final int fromX = tile.getX();
+            final int toX = tile.getX() + tile.getWidth() - 1;
+            for (int y = tile.getY(); y < tile.getY() + tile.getHeight(); y++) {
+                if (tile.isUniform()) {
+                    // uniform tiles are filled word by word, walls are skipped entirely
+                    if (tile.getUniformType().IS_WALKABLE) reachability.fill(reachability.walkable, y, fromX, toX);
+                    if (tile.getUniformType().IS_JUMPABLE) reachability.fill(reachability.jumpable, y, fromX, toX);
+                    continue;
+                }
+                for (int x = fromX; x <= toX; x++) {
+                    var fieldType = tile.get(x, y);
+                    if (fieldType.IS_WALKABLE) reachability.walkable[reachability.index(x, y)] |= bit(x);
+                    if (fieldType.IS_JUMPABLE) reachability.jumpable[reachability.index(x, y)] |= bit(x);
+                }
+            }
+        }
+
+        reachability.fillFromOrigin();
+
+        return reachability;
+    }
+
+    /**
+     * Updates reachability after the field at x, y of board changed.
+     * Board has to be the board this reachability was calculated for, with an unchanged origin.
+     *
+     * @param board board with changed field
+     * @param x X-Axis coordinate of changed field
+     * @param y Y-Axis coordinate of changed field
+     */
+    public void update(Board board, int x, int y) {
+        if (y >= height || y < 0) return;
+        if (x >= width || x < 0) return;
+
+        final FieldType fieldType = board.get(x, y);
+        final boolean wasJumpable = contains(jumpable, x, y);
+        final boolean wasReachable = isReachable(x, y);
+        set(walkable, x, y, fieldType.IS_WALKABLE);
+        set(jumpable, x, y, fieldType.IS_JUMPABLE);
+
+        // fields can only be cut off by a reachable field that isn't walkable anymore,
+        // or by an abyss next to reachable fields that can't be jumped over anymore
+        final boolean cutsOff = (wasReachable && !fieldType.IS_WALKABLE)
+                || (wasJumpable && !fieldType.IS_JUMPABLE && isNextToReachable(x, y))
+                || (origin != null && origin.X() == x && origin.Y() == y);
+        if (cutsOff) {
+            Arrays.fill(reachable, 0);
+            fillFromOrigin();
+            return;
+        }
+
+        if (isOpen(x, y) && isEnterable(x, y)) fillRun(x, y);
+        if (fieldType.IS_JUMPABLE && !wasJumpable) {
+            // jumps over the new abyss
+            if (isReachable(x - 1, y) && isOpen(x + 1, y)) fillRun(x + 1, y);
+            if (isReachable(x + 1, y) && isOpen(x - 1, y)) fillRun(x - 1, y);
+            if (isReachable(x, y - 1) && isOpen(x, y + 1)) fillRun(x, y + 1);
+            if (isReachable(x, y + 1) && isOpen(x, y - 1)) fillRun(x, y - 1);
+        }
+        drain();
+    }
+
+    /**
+     * Is field reachable from origin?
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return true, if reachable. Out of bound coordinates are never reachable
+     */
+    public boolean isReachable(int x, int y) {
+        return contains(reachable, x, y);
+    }
+
+    /**
+     * Is field reachable from origin?
+     * @param position position of field
+     * @return true, if reachable. Out of bound coordinates are never reachable
+     */
+    public boolean isReachable(Vector position) {
+        return isReachable(position.X(), position.Y());
+    }
+
+    /**
+     * Counts all reachable fields
+     * @return count of reachable fields
+     */
+    public int count() {
+        int count = 0;
+        for (long word : reachable) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Fills all fields reachable from origin
+     */
+    private void fillFromOrigin() {
+        if (origin != null && isWalkable(origin.X(), origin.Y())) {
+            fillRun(origin.X(), origin.Y());
+            drain();
+        }
+    }
+
+    /**
+     * Can the field be entered from a reachable field, by a step or by a jump?
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return true, if a reachable field leads to this field
+     */
+    private boolean isEnterable(int x, int y) {
+        return isNextToReachable(x, y)
+                || (isReachable(x - 2, y) && contains(jumpable, x - 1, y))
+                || (isReachable(x + 2, y) && contains(jumpable, x + 1, y))
+                || (isReachable(x, y - 2) && contains(jumpable, x, y - 1))
+                || (isReachable(x, y + 2) && contains(jumpable, x, y + 1));
+    }
+
+    /**
+     * Is one of the four neighbours of the field reachable?
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return true, if a neighbour is reachable
+     */
+    private boolean isNextToReachable(int x, int y) {
+        return isReachable(x - 1, y) || isReachable(x + 1, y) || isReachable(x, y - 1) || isReachable(x, y + 1);
+    }
+
+    /**
+     * Sets or clears the bit of a field
+     * @param bitboard bitboard
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @param value true, to set the bit
+     */
+    private void set(long[] bitboard, int x, int y, boolean value) {
+        if (value) bitboard[index(x, y)] |= bit(x);
+        else bitboard[index(x, y)] &= ~bit(x);
+    }
+
+    /**
+     * Is field walkable?
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return true, if walkable
+     */
+    private boolean isWalkable(int x, int y) {
+        return contains(walkable, x, y);
+    }
+
+    /**
+     * Checks bit of field in bitboard
+     * @param bitboard bitboard
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return true, if bit is set
+     */
+    private boolean contains(long[] bitboard, int x, int y) {
+        if (y >= height || y < 0) return false;
+        if (x >= width || x < 0) return false;
+        return (bitboard[index(x, y)] & bit(x)) != 0;
+    }
+
+    /**
+     * Scanline flood fill of the queued runs. Every run of walkable fields is filled at once and queued;
+     * a queued run is then scanned for runs that can be reached from it: one step or one jump
+     * above and below, and one jump beyond each of its ends.
+     * The work queue holds each run at most once, so memory is bound by the board size and no
+     * recursion is involved.
+     */
+    private void drain() {
+        while (queueSize > 0) {
+            queueSize -= 3;
+            final int runY = queue[queueSize];
+            final int runFrom = queue[queueSize + 1];
+            final int runTo = queue[queueSize + 2];
+
+            // steps to the rows above and below
+            scan(runY - 1, runFrom, runTo, -1);
+            scan(runY + 1, runFrom, runTo, -1);
+
+            // jumps over the rows above and below
+            scan(runY - 2, runFrom, runTo, runY - 1);
+            scan(runY + 2, runFrom, runTo, runY + 1);
+
+            // jumps beyond the ends of the run
+            if (contains(jumpable, runFrom - 1, runY) && isOpen(runFrom - 2, runY)) fillRun(runFrom - 2, runY);
+            if (contains(jumpable, runTo + 1, runY) && isOpen(runTo + 2, runY)) fillRun(runTo + 2, runY);
+        }
+    }
+
+    /**
+     * Fills every run of row y that isn't reached yet and touches the fields from..to.
+     * @param y row that is scanned
+     * @param from first field
+     * @param to last field
+     * @param jumpOverY row that has to be jumpable to enter row y, -1 if row y is entered by a step
+     */
+    private void scan(int y, int from, int to, int jumpOverY) {
+        if (y >= height || y < 0) return;
+
+        final int row = y * words;
+        for (int i = from / WORD_SIZE; i <= to / WORD_SIZE; i++) {
+            long candidates = walkable[row + i] & ~reachable[row + i] & rangeOf(i, from, to);
+            if (jumpOverY >= 0) candidates &= jumpable[jumpOverY * words + i];
+
+            while (candidates != 0) {
+                fillRun(i * WORD_SIZE + Long.numberOfTrailingZeros(candidates), y);
+                // the filled run can cover further candidates
+                candidates &= ~reachable[row + i];
+            }
+        }
+    }
+
+    /**
+     * Sets the bits of the fields from..to of row y
+     * @param bitboard bitboard
+     * @param y row
+     * @param from first field
+     * @param to last field
+     */
+    private void fill(long[] bitboard, int y, int from, int to) {
+        final int row = y * words;
+        for (int i = from / WORD_SIZE; i <= to / WORD_SIZE; i++) {
+            bitboard[row + i] |= rangeOf(i, from, to);
+        }
+    }
+
+    /**
+     * Marks the whole run of walkable fields containing x as reachable and queues it
+     * @param x X-Axis coordinate of a walkable field
+     * @param y Y-Axis coordinate of a walkable field
+     */
+    private void fillRun(int x, int y) {
+        final int row = y * words;
+        final int from = runStart(row, x);
+        final int to = runEnd(row, x);
+
+        fill(reachable, y, from, to);
+
+        if (queueSize + 3 > queue.length) {
+            queue = Arrays.copyOf(queue, Math.max(queue.length * 2, 3 * WORD_SIZE));
+        }
+        queue[queueSize++] = y;
+        queue[queueSize++] = from;
+        queue[queueSize++] = to;
+    }
+
+    /**
+     * First field of the run of walkable fields containing x
+     * @param row offset of row
+     * @param x X-Axis coordinate
+     * @return X-Axis coordinate of first field in run
+     */
+    private int runStart(int row, int x) {
+        int i = x / WORD_SIZE;
+        long blocked = ~walkable[row + i] & (-1L >>> (WORD_SIZE - 1 - x % WORD_SIZE));
+        while (blocked == 0 && i > 0) {
+            blocked = ~walkable[row + --i];
+        }
+        return blocked == 0 ? 0 : i * WORD_SIZE + (WORD_SIZE - Long.numberOfLeadingZeros(blocked));
+    }
+
+    /**
+     * Last field of the run of walkable fields containing x
+     * @param row offset of row
+     * @param x X-Axis coordinate
+     * @return X-Axis coordinate of last field in run
+     */
+    private int runEnd(int row, int x) {
+        int i = x / WORD_SIZE;
+        long blocked = ~walkable[row + i] & (-1L << (x % WORD_SIZE));
+        while (blocked == 0 && i + 1 < words) {
+            blocked = ~walkable[row + ++i];
+        }
+        return blocked == 0 ? width - 1 : i * WORD_SIZE + Long.numberOfTrailingZeros(blocked) - 1;
+    }
+
+    /**
+     * Is field walkable, but not reached yet?
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return true, if field can still be filled
+     */
+    private boolean isOpen(int x, int y) {
+        return isWalkable(x, y) && !isReachable(x, y);
+    }
+
+    /**
+     * Bits of word i that lie between the fields from..to
+     * @param i word in row
+     * @param from first field
+     * @param to last field
+     * @return bit mask
+     */
+    private static long rangeOf(int i, int from, int to) {
+        int first = Math.max(from - i * WORD_SIZE, 0);
+        int last = Math.min(to - i * WORD_SIZE, WORD_SIZE - 1);
+        return (-1L << first) & (-1L >>> (WORD_SIZE - 1 - last));
+    }
+
+    /**
+     * Index of word containing field
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return index of word
+     */
+    private int index(int x, int y) {
+        return y * words + x / WORD_SIZE;
+    }
+
+    /**
+     * Bit of field inside its word
+     * @param x X-Axis coordinate
+     * @return bit mask
+     */
+    private static long bit(int x) {
+        return 1L << (x % WORD_SIZE);
+    }
+}
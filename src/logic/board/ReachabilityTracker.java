@@ -0,0 +1,80 @@
+package logic.board;
+
+import logic.util.Vector;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps the {@link Reachability} of an edited board up to date.
+ * Call {@link #update(int, int)} after every change of a field. A change only refills the affected region,
+ * so the unreachable exits and coins are known immediately after each edit, even on large boards.
+ */
+public final class ReachabilityTracker {
+    /**
+     * edited board
+     */
+    private final Board board;
+    /**
+     * start position reachability is calculated from, null if board has no single start
+     */
+    private Vector origin;
+    /**
+     * fields reachable from origin
+     */
+    private Reachability reachability;
+
+    /**
+     * Instantiates a new tracker and calculates the reachability of board
+     * @param board edited board
+     */
+    public ReachabilityTracker(Board board) {
+        this.board = board;
+        this.origin = originOf(board);
+        this.reachability = Reachability.of(board, origin);
+    }
+
+    /**
+     * Updates the reachability after a field of the board changed.
+     * Moving the start field recalculates the whole board.
+     *
+     * @param x X-Axis coordinate of changed field
+     * @param y Y-Axis coordinate of changed field
+     */
+    public void update(int x, int y) {
+        var start = originOf(board);
+        if (!Objects.equals(start, origin)) {
+            origin = start;
+            reachability = Reachability.of(board, origin);
+        } else {
+            reachability.update(board, x, y);
+        }
+    }
+
+    /**
+     * Is field reachable from start?
+     * @param x X-Axis coordinate
+     * @param y Y-Axis coordinate
+     * @return true, if reachable
+     */
+    public boolean isReachable(int x, int y) {
+        return reachability.isReachable(x, y);
+    }
+
+    /**
+     * Exits and coins that can't be reached from start, as reported by {@link Board#analyze()}
+     * @return list of {@link Board.ProblemType#NOT_REACHABLE} problems, empty if board has no single start
+     */
+    public List<Board.Problem> getUnreachable() {
+        return origin == null ? List.of() : board.findUnreachable(reachability);
+    }
+
+    /**
+     * Start position of board
+     * @param board board
+     * @return start position, null if board has none or too many
+     */
+    private static Vector originOf(Board board) {
+        return board.count(FieldType.START) == 1 ? board.getStartPosition() : null;
+    }
+}
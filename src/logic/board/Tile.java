@@ -0,0 +1,111 @@
+package logic.board;
+
+/**
+ * View of a square region of a {@link Board}, see {@link Board#tiles()}.
+ * Fields of a uniform tile all have the same type, so a whole tile of walls can be skipped
+ * without looking at its fields. Coordinates are board coordinates.
+ */
+public final class Tile {
+    /**
+     * Width and height of a tile. Tiles at the right and bottom edge of a board can be smaller.
+     */
+    public static final int SIZE = FieldStorage.TILE_SIZE;
+
+    /**
+     * Cached values of {@link FieldType}, used to decode the packed fields
+     */
+    private static final FieldType[] FIELD_TYPES = FieldType.values();
+
+    /**
+     * fields of board
+     */
+    private final FieldStorage fields;
+    /**
+     * X-Axis coordinate of first field
+     */
+    private final int x;
+    /**
+     * Y-Axis coordinate of first field
+     */
+    private final int y;
+    /**
+     * type of all fields, null if fields have different types
+     */
+    private final FieldType uniformType;
+
+    /**
+     * Instantiates a new Tile
+     * @param fields fields of board
+     * @param tileX X-Axis coordinate of tile
+     * @param tileY Y-Axis coordinate of tile
+     */
+    Tile(FieldStorage fields, int tileX, int tileY) {
+        this.fields = fields;
+        this.x = tileX * SIZE;
+        this.y = tileY * SIZE;
+
+        int uniform = fields.uniformOf(tileX, tileY);
+        this.uniformType = uniform < 0 ? null : FIELD_TYPES[uniform];
+    }
+
+    /**
+     * X-Axis coordinate of first field
+     * @return x coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Y-Axis coordinate of first field
+     * @return y coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Width of tile
+     * @return width
+     */
+    public int getWidth() {
+        return Math.min(SIZE, fields.getWidth() - x);
+    }
+
+    /**
+     * Height of tile
+     * @return height
+     */
+    public int getHeight() {
+        return Math.min(SIZE, fields.getHeight() - y);
+    }
+
+    /**
+     * Do all fields of this tile have the same type?
+     * @return true, if tile is uniform
+     */
+    public boolean isUniform() {
+        return uniformType != null;
+    }
+
+    /**
+     * Type of all fields of this tile
+     * @return field type, null if fields have different types
+     */
+    public FieldType getUniformType() {
+        return uniformType;
+    }
+
+    /**
+     * Get field of this tile
+     * @param x X-Axis coordinate (board coordinate)
+     * @param y Y-Axis coordinate (board coordinate)
+     * @return type of field
+     */
+    public FieldType get(int x, int y) {
+        assert x >= this.x && x < this.x + getWidth();
+        assert y >= this.y && y < this.y + getHeight();
+
+        return uniformType != null ? uniformType : FIELD_TYPES[fields.get(x, y)];
+    }
+}
@@ -0,0 +1,95 @@
+package logic.board;
+
+import logic.Direction;
+import logic.util.Vector;
+
+/**
+ * Zobrist keys of the state of a {@link Board}.
+ * The hash of a board is the xor of the key of its shape, the keys of all its fields, of the position and of the
+ * direction of the bot, so a change is applied by xor-ing out the old key and xor-ing in the new one.
+ * Field keys are derived from the cell index, the shape key tells boards with equal cells of different shapes apart.
+ * <p>
+ * Keys are derived from their position with the SplitMix64 finalizer instead of a table of random numbers,
+ * so boards of any size need no memory for keys. Walls have the key 0: a board of walls only has the key of
+ * its shape and uniform tiles of walls never have to be visited.
+ */
+final class Zobrist {
+    /**
+     * Count of field types, cached instead of cloning {@link FieldType#values()} for every field
+     */
+    private static final int FIELD_TYPE_COUNT = FieldType.values().length;
+    /**
+     * Seed of field keys
+     */
+    private static final long FIELD_SEED = 0x9E3779B97F4A7C15L;
+    /**
+     * Seed of shape keys
+     */
+    private static final long SHAPE_SEED = 0xA0761D6478BD642FL;
+    /**
+     * Seed of bot position keys
+     */
+    private static final long POSITION_SEED = 0xD1B54A32D192ED03L;
+    /**
+     * Seed of bot direction keys
+     */
+    private static final long DIRECTION_SEED = 0x8CB92BA72F3D8DD7L;
+
+    /**
+     * Utility class
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * Key of the shape of a board, the initial hash of every board
+     * @param width width of board
+     * @param height height of board
+     * @return key
+     */
+    static long shape(int width, int height) {
+        return mix(SHAPE_SEED + (((long) width << 32) ^ (height & 0xFFFFFFFFL)));
+    }
+
+    /**
+     * Key of a field
+     * @param cell cell index of field (y * width + x)
+     * @param fieldType type of field
+     * @return key, 0 for walls
+     */
+    static long field(int cell, FieldType fieldType) {
+        if (fieldType == FieldType.WALL) return 0;
+        return mix(FIELD_SEED + ((long) cell * FIELD_TYPE_COUNT + fieldType.ordinal()));
+    }
+
+    /**
+     * Key of the position of the bot
+     * @param position position of bot, may be null
+     * @return key, 0 if position is null
+     */
+    static long position(Vector position) {
+        if (position == null) return 0;
+        return mix(POSITION_SEED + (((long) position.X() << 32) ^ (position.Y() & 0xFFFFFFFFL)));
+    }
+
+    /**
+     * Key of the direction of the bot
+     * @param direction direction of bot, may be null
+     * @return key, 0 if direction is null
+     */
+    static long direction(Direction direction) {
+        if (direction == null) return 0;
+        return mix(DIRECTION_SEED + direction.ordinal());
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads every input bit over the whole key
+     * @param z input
+     * @return mixed input
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
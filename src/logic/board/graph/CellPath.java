@@ -0,0 +1,136 @@
+package logic.board.graph;
+
+import java.util.Arrays;
+
+/**
+ * Path of cells of a {@link Graph}, kept as a growable int buffer.
+ * Shortest paths are appended by walking the parents of a {@link DistanceField} back from the target,
+ * so no path is stored per cell and a path costs O(length) to rebuild. A path can be cleared and reused,
+ * the buffer only grows.
+ */
+final class CellPath {
+    /**
+     * cells of path, only the first {@link #length} are used
+     */
+    private int[] cells;
+    /**
+     * count of cells in path
+     */
+    private int length;
+
+    /**
+     * Instantiates a new, empty path
+     */
+    CellPath() {
+        this.cells = new int[16];
+    }
+
+    /**
+     * Removes all cells, the buffer is kept
+     */
+    void clear() {
+        length = 0;
+    }
+
+    /**
+     * Count of cells
+     * @return length of path
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Cell at a position of the path
+     * @param i position in path
+     * @return index of cell
+     */
+    int get(int i) {
+        if (i < 0 || i >= length) throw new IndexOutOfBoundsException(i);
+        return cells[i];
+    }
+
+    /**
+     * Appends a single cell
+     * @param cell index of cell
+     */
+    void add(int cell) {
+        ensureCapacity(length + 1);
+        cells[length++] = cell;
+    }
+
+    /**
+     * Appends the shortest path from the source of a distance field to a target, excluding the target.
+     * Nothing is appended if target is the source or can't be reached.
+     *
+     * @param distances distance field
+     * @param target index of target cell
+     * @return true, if target is reachable
+     */
+    boolean appendPathTo(DistanceField distances, int target) {
+        if (!distances.isReachable(target)) return false;
+
+        // the path has one cell per edge, parents are written back to front
+        final int count = distances.distance(target);
+        ensureCapacity(length + count);
+        int cell = distances.parent(target);
+        for (int i = length + count - 1; i >= length; i--) {
+            cells[i] = cell;
+            cell = distances.parent(cell);
+        }
+        length += count;
+        return true;
+    }
+
+    /**
+     * Appends a path that ends at a cell, given the previous cell of every cell on it
+     * @param parent previous cell by cell
+     * @param last last cell of path
+     * @param count count of cells to append, last included
+     */
+    void appendParents(int[] parent, int last, int count) {
+        ensureCapacity(length + count);
+        int cell = last;
+        for (int i = length + count - 1; i >= length; i--) {
+            cells[i] = cell;
+            cell = parent[cell];
+        }
+        length += count;
+    }
+
+    /**
+     * Appends a path that starts at a cell, given the next cell of every cell on it
+     * @param next next cell by cell
+     * @param first first cell of path
+     * @param count count of cells to append, first included
+     */
+    void appendNext(int[] next, int first, int count) {
+        ensureCapacity(length + count);
+        int cell = first;
+        for (int i = 0; i < count; i++) {
+            cells[length++] = cell;
+            cell = next[cell];
+        }
+    }
+
+    /**
+     * Copies the cells
+     * @return cells of path
+     */
+    int[] toArray() {
+        return Arrays.copyOf(cells, length);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Grows the buffer
+     * @param capacity required capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > cells.length) cells = Arrays.copyOf(cells, Math.max(capacity, 2 * cells.length));
+    }
+}
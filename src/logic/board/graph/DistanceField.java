@@ -0,0 +1,119 @@
+package logic.board.graph;
+
+import java.util.Arrays;
+
+/**
+ * Distances of all cells of a {@link Graph} from a single source cell.
+ * All edges have a weight of one, so a breadth-first search finds the shortest distances in O(V+E):
+ * cells are visited in order of distance, every cell is queued at most once and every edge is looked at once.
+ * For every reached cell the search keeps the cell it was reached from, so shortest paths can be rebuilt.
+ * <p>
+ * The arrays are allocated once per graph and reused for every source.
+ */
+final class DistanceField {
+    /**
+     * Distance of cells that can't be reached from the source
+     */
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    /**
+     * Parent of the source and of cells that can't be reached
+     */
+    static final int NO_PARENT = -1;
+
+    /**
+     * searched graph
+     */
+    private final Graph graph;
+    /**
+     * distance from source by cell
+     */
+    private final int[] distance;
+    /**
+     * previous cell on a shortest path from source by cell
+     */
+    private final int[] parent;
+    /**
+     * cells in order of discovery, every cell is added at most once
+     */
+    private final int[] queue;
+    /**
+     * source of current distances, -1 if nothing was computed yet
+     */
+    private int source = -1;
+
+    /**
+     * Instantiates a new distance field, nothing is reachable until {@link #compute(int)} is called
+     * @param graph graph
+     */
+    DistanceField(Graph graph) {
+        this.graph = graph;
+        this.distance = new int[graph.size()];
+        this.parent = new int[graph.size()];
+        this.queue = new int[graph.size()];
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(parent, NO_PARENT);
+    }
+
+    /**
+     * Computes the distances from source to all cells
+     * @param source index of source cell
+     */
+    void compute(int source) {
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(parent, NO_PARENT);
+        this.source = source;
+
+        int head = 0;
+        int tail = 0;
+        distance[source] = 0;
+        queue[tail++] = source;
+
+        while (head < tail) {
+            final int current = queue[head++];
+            final int next = distance[current] + 1;
+            for (int edge = graph.firstEdge(current); edge < graph.endEdge(current); edge++) {
+                final int target = graph.target(edge);
+                if (distance[target] != UNREACHABLE) continue;
+
+                distance[target] = next;
+                parent[target] = current;
+                queue[tail++] = target;
+            }
+        }
+    }
+
+    /**
+     * Source of the current distances
+     * @return index of source cell, -1 if nothing was computed yet
+     */
+    int getSource() {
+        return source;
+    }
+
+    /**
+     * Distance of a cell from source
+     * @param cell index of cell
+     * @return count of edges on a shortest path, {@link #UNREACHABLE} if cell can't be reached
+     */
+    int distance(int cell) {
+        return distance[cell];
+    }
+
+    /**
+     * Previous cell on a shortest path from source
+     * @param cell index of cell
+     * @return index of previous cell, {@link #NO_PARENT} for source and cells that can't be reached
+     */
+    int parent(int cell) {
+        return parent[cell];
+    }
+
+    /**
+     * Whether a cell can be reached from source
+     * @param cell index of cell
+     * @return true, if reachable
+     */
+    boolean isReachable(int cell) {
+        return distance[cell] != UNREACHABLE;
+    }
+}
@@ -2,6 +2,7 @@ package logic.board.graph;
 
 import logic.board.Board;
 import logic.board.FieldType;
+import logic.board.Tile;
 import logic.util.Vector;
 
 import java.util.*;
@@ -9,73 +10,240 @@ import java.util.*;
 /**
  * Parent class of graph representation of board.
  * Use {@link #of(Board)} to generate a new Graph.
+ * <p>
+ * Cells are indexed as {@code y * width + x}. The adjacency is kept in compressed sparse row form:
+ * the edges of cell {@code i} point to {@code targets[offsets[i]]} up to (excluding) {@code targets[offsets[i + 1]]}.
+ * Walls aren't part of any path, they have no node and no edges.
  *
  * @author orcid.org/0009-0008-3023-1228 (inf104662)
  */
 class Graph implements Iterable<Node> {
     /**
-     * Map of all nodes, using their position as key.
+     * Cached values of {@link FieldType}, used to decode {@link #types}
      */
-    private final Map<Vector, Node> nodeMap;
+    private static final FieldType[] FIELD_TYPES = FieldType.values();
+    /**
+     * Offsets of the four directions, in the order edges are added: east, west, south, north
+     */
+    private static final int[][] OFFSETS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
 
     /**
-     * Initiate a new Graph. Should only be used internally or for testing. Use {@link #of(Board)}
-     * to initiate a new Graph from a Board.
+     * width of board
      */
-    Graph() {
-        this.nodeMap = new HashMap<>();
-    }
+    private final int width;
+    /**
+     * height of board
+     */
+    private final int height;
+    /**
+     * ordinal of field type by cell
+     */
+    private final byte[] types;
+    /**
+     * first edge of every cell, offsets[cells] is the count of edges
+     */
+    private final int[] offsets;
+    /**
+     * target cell of every edge
+     */
+    private final int[] targets;
+    /**
+     * distances from the last origin, created on first use
+     */
+    private DistanceField distances;
+    /**
+     * reversed edges, built on first use
+     */
+    private volatile Incoming incoming;
 
     /**
-     * Add new Node. Node needs Position
-     * @param node node to add
+     * Reversed adjacency in compressed sparse row form: the edges into cell {@code i} come from
+     * {@code sources[offsets[i]]} up to (excluding) {@code sources[offsets[i + 1]]}
+     * @param offsets first incoming edge of every cell
+     * @param sources source cell of every incoming edge
      */
-    public void add(Node node) {
-        nodeMap.put(node.getPosition(), node);
+    record Incoming(int[] offsets, int[] sources) {}
+
+    /**
+     * Initiate a new Graph. Use {@link #of(Board)} to initiate a new Graph from a Board.
+     * @param width width of board
+     * @param height height of board
+     * @param types ordinal of field type by cell
+     * @param offsets first edge of every cell
+     * @param targets target cell of every edge
+     */
+    private Graph(int width, int height, byte[] types, int[] offsets, int[] targets) {
+        this.width = width;
+        this.height = height;
+        this.types = types;
+        this.offsets = offsets;
+        this.targets = targets;
     }
 
     /**
-     * Retrieves node from map at position
+     * Retrieves node at position
      * @param position position in board
-     * @return node from Position
+     * @return node from Position, null if position is a wall or outside of board
      */
     public Node get(Vector position) {
-        return nodeMap.get(position);
+        if (!contains(position.X(), position.Y())) return null;
+        return node(index(position.X(), position.Y()));
     }
 
     /**
-     * Calculate distances from one start position to all other possible positions.
-     * @param startPos start position
+     * Node of a cell
+     * @param cell index of cell
+     * @return node, null if cell is a wall
+     */
+    Node node(int cell) {
+        return types[cell] != FieldType.WALL.ordinal() ? new Node(this, cell) : null;
+    }
+
+    /**
+     * Width of board
+     * @return width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Height of board
+     * @return height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Count of cells, walls included
+     * @return width * height
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * Index of a cell
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return y * width + x
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Field type of a cell
+     * @param cell index of cell
+     * @return field type
+     */
+    public FieldType typeOf(int cell) {
+        return FIELD_TYPES[types[cell]];
+    }
+
+    /**
+     * Index of the first edge of a cell
+     * @param cell index of cell
+     * @return index into {@link #target(int)}
+     */
+    public int firstEdge(int cell) {
+        return offsets[cell];
+    }
+
+    /**
+     * Index after the last edge of a cell
+     * @param cell index of cell
+     * @return index into {@link #target(int)}, exclusive
+     */
+    public int endEdge(int cell) {
+        return offsets[cell + 1];
+    }
+
+    /**
+     * Target of an edge
+     * @param edge index of edge
+     * @return index of target cell
      */
-    public void dijkstra(Vector startPos) {
-        Node source = nodeMap.get(startPos);
+    public int target(int edge) {
+        return targets[edge];
+    }
 
-        source.setDistanceFromStart(0);
+    /**
+     * Count of edges
+     * @return count of edges
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
 
-        Set<Node> settledNodes = new HashSet<>();
-        Set<Node> unsettledNodes = new HashSet<>();
-        unsettledNodes.add(source);
+    /**
+     * Reversed edges of this graph, built once and shared by all callers
+     * @return incoming edges by cell
+     */
+    Incoming incoming() {
+        var incoming = this.incoming;
+        if (incoming == null) {
+            // building twice in a race is harmless, both results are equal and never changed
+            int[] inOffsets = new int[types.length + 1];
+            for (int target : targets) inOffsets[target + 1]++;
+            for (int cell = 0; cell < types.length; cell++) inOffsets[cell + 1] += inOffsets[cell];
 
-        while (!unsettledNodes.isEmpty()) {
-            Node current = pollFromSet(unsettledNodes);
-            current.setStart(source);
-            for (Edge adjacentEdge : current.getAdjacent()) {
-                var adjacent = adjacentEdge.getNode();
-                if (!settledNodes.contains(adjacent)) {
-                    current.calcDistance(adjacent); //setCalcDistance(adjacent, adjacentEdge, current);
-                    unsettledNodes.add(adjacent);
+            int[] next = Arrays.copyOf(inOffsets, types.length);
+            int[] sources = new int[targets.length];
+            for (int cell = 0; cell < types.length; cell++) {
+                for (int edge = offsets[cell]; edge < offsets[cell + 1]; edge++) {
+                    sources[next[targets[edge]]++] = cell;
                 }
             }
-            settledNodes.add(current);
+            incoming = new Incoming(inOffsets, sources);
+            this.incoming = incoming;
         }
+        return incoming;
+    }
+
+    /**
+     * Calculate distances from one start position to all other possible positions.
+     * @param startPos start position
+     */
+    public void calculateDistances(Vector startPos) {
+        getDistances().compute(index(startPos.X(), startPos.Y()));
+    }
+
+    /**
+     * Distances from the start position of the last {@link #calculateDistances(Vector)}
+     * @return distance field
+     */
+    DistanceField getDistances() {
+        if (distances == null) distances = new DistanceField(this);
+        return distances;
     }
 
     /**
      * Get all coins in this Graph.
-     * @return list of coins nodes in graph.
+     * @return list of coins nodes in graph, in order of cells.
      */
     public List<Node> getCoins() {
-        return new ArrayList<>(nodeMap.values().stream().filter(node -> node.getFieldType() == FieldType.COIN).toList());
+        List<Node> coins = new ArrayList<>();
+        for (int cell : coinCells()) coins.add(new Node(this, cell));
+        return coins;
+    }
+
+    /**
+     * Cells of all coins, without a node per coin
+     * @return indices of coin cells, in order of cells
+     */
+    int[] coinCells() {
+        int count = 0;
+        for (byte type : types) {
+            if (type == FieldType.COIN.ordinal()) count++;
+        }
+
+        int[] coins = new int[count];
+        for (int cell = 0, i = 0; i < count; cell++) {
+            if (types[cell] == FieldType.COIN.ordinal()) coins[i++] = cell;
+        }
+        return coins;
     }
 
     @Override
@@ -83,16 +251,11 @@ class Graph implements Iterable<Node> {
         StringBuilder sb = new StringBuilder();
         sb.append("Adjacency list:\n");
 
-        for (Node node : nodeMap.values()) {
-            boolean isFirst = true;
+        for (Node node : this) {
             sb.append(node).append(":  \t[");
-            for (Edge adjacent : node.getAdjacent()) {
-                if (isFirst) {
-                    isFirst = false;
-                } else {
-                    sb.append(", ");
-                }
-                sb.append(adjacent.getNode());
+            for (int edge = firstEdge(node.getIndex()); edge < endEdge(node.getIndex()); edge++) {
+                if (edge > firstEdge(node.getIndex())) sb.append(", ");
+                sb.append(node(targets[edge]));
             }
             sb.append("]\n");
         }
@@ -100,9 +263,42 @@ class Graph implements Iterable<Node> {
         return sb.toString();
     }
 
+    /**
+     * Iterates the nodes of all cells but walls. Nodes are created while iterating, not for every cell up front.
+     * @return iterator of nodes, in order of cells
+     */
     @Override
     public Iterator<Node> iterator() {
-        return nodeMap.values().iterator();
+        return new Iterator<>() {
+            /**
+             * next cell that isn't a wall, types.length at the end
+             */
+            private int cell = skipWalls(0);
+
+            @Override
+            public boolean hasNext() {
+                return cell < types.length;
+            }
+
+            @Override
+            public Node next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                var node = new Node(Graph.this, cell);
+                cell = skipWalls(cell + 1);
+                return node;
+            }
+        };
+    }
+
+    /**
+     * First cell that isn't a wall
+     * @param from index of first cell to look at
+     * @return index of cell, types.length if only walls follow
+     */
+    private int skipWalls(int from) {
+        int cell = from;
+        while (cell < types.length && types[cell] == FieldType.WALL.ordinal()) cell++;
+        return cell;
     }
 
     /**
@@ -111,40 +307,97 @@ class Graph implements Iterable<Node> {
      * @return newly generated graph
      */
     public static Graph of(Board board) {
-        Graph graph = new Graph();
-
-        // generate Node map
-        Map<Vector, Node> nodeMap = new HashMap<>();
-        var fields = board.toArray();
-        for (int y = 0; y < fields.length; y++) {
-            for (int x = 0; x < fields[y].length; x++) {
-                Node node = new Node(new Vector(x, y), fields[y][x]);
-                nodeMap.put(new Vector(x, y), node);
+        final int width = board.getWidth();
+        final int height = board.getHeight();
+
+        // field types by cell, tiles of walls can't be part of a path and are skipped
+        byte[] types = new byte[width * height];
+        Arrays.fill(types, (byte) FieldType.WALL.ordinal());
+        for (Tile tile : board.tiles()) {
+            if (tile.getUniformType() == FieldType.WALL) continue;
+
+            for (int y = tile.getY(); y < tile.getY() + tile.getHeight(); y++) {
+                for (int x = tile.getX(); x < tile.getX() + tile.getWidth(); x++) {
+                    types[y * width + x] = (byte) tile.get(x, y).ordinal();
+                }
             }
         }
 
-        //var fields = board.toArray();
-        for (int y = 0; y < fields.length; y++) {
-            for (int x = 0; x < fields[y].length; x++) {
-                var target = nodeMap.get(new Vector(x, y));
-                if (FieldType.isWalkable(target.getFieldType())) {
-                    target.setAdjacent(nodeMap); //addAdjacent(target, nodeMap);
+        // count edges first, then fill them in the same order
+        int[] offsets = new int[types.length + 1];
+        for (int cell = 0; cell < types.length; cell++) {
+            offsets[cell + 1] = offsets[cell] + edges(types, width, height, cell, null, 0);
+        }
+        int[] targets = new int[offsets[types.length]];
+        for (int cell = 0; cell < types.length; cell++) {
+            edges(types, width, height, cell, targets, offsets[cell]);
+        }
+
+        return new Graph(width, height, types, offsets, targets);
+    }
+
+    /**
+     * Generates the edges of a cell to neighboring (in the sense of reachable) cells.
+     * Only walkable cells have edges. A walkable neighbor is reached by moving, a jumpable neighbor
+     * allows to jump to the cell behind it, if that one is walkable. Like the bot, every direction has at most
+     * one edge: a field is either walkable or jumpable.
+     *
+     * @param types field type ordinals by cell
+     * @param width width of board
+     * @param height height of board
+     * @param cell source cell
+     * @param targets receives target cells, null to only count edges
+     * @param offset index of first edge in targets
+     * @return count of edges
+     */
+    private static int edges(byte[] types, int width, int height, int cell, int[] targets, int offset) {
+        if (!FieldType.isWalkable(FIELD_TYPES[types[cell]])) return 0;
+
+        final int x = cell % width;
+        final int y = cell / width;
+        int count = 0;
+        for (int[] direction : OFFSETS) {
+            final int nx = x + direction[0];
+            final int ny = y + direction[1];
+            if (!isNode(types, width, height, nx, ny)) continue;
+
+            var field = FIELD_TYPES[types[ny * width + nx]];
+            if (FieldType.isWalkable(field)) {
+                if (targets != null) targets[offset + count] = ny * width + nx;
+                count++;
+            }
+            if (FieldType.isJumpable(field)) {
+                final int jx = nx + direction[0];
+                final int jy = ny + direction[1];
+                if (isNode(types, width, height, jx, jy) && FieldType.isWalkable(FIELD_TYPES[types[jy * width + jx]])) {
+                    if (targets != null) targets[offset + count] = jy * width + jx;
+                    count++;
                 }
-                graph.add(target);
             }
         }
+        return count;
+    }
 
-        return graph;
+    /**
+     * Whether a position is inside of the board and not a wall
+     * @param types field type ordinals by cell
+     * @param width width of board
+     * @param height height of board
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return true, if position has a node
+     */
+    private static boolean isNode(byte[] types, int width, int height, int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && types[y * width + x] != FieldType.WALL.ordinal();
     }
 
     /**
-     * Helper method. Retrieves and removes first element from set.
-     * @param set set
-     * @return first element from Set
+     * Whether a position is inside of the board
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return true, if inside
      */
-    private static Node pollFromSet(Set<Node> set) {
-        Node first = set.iterator().next();
-        set.remove(first);
-        return first;
+    private boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
     }
 }
@@ -4,64 +4,40 @@ import logic.board.FieldType;
 import logic.util.Vector;
 
 import java.util.*;
-import java.util.function.Function;
 
 /**
- * The type Node.
+ * The type Node. A view of a single cell of a {@link Graph}, all data is kept in the graph.
  */
 class Node {
     /**
-     * Adjacent Nodes
+     * Graph of Node
      */
-    private final List<Edge> adjacent;
+    private final Graph graph;
     /**
-     * Position of Node in {@link logic.board.Board}
+     * Index of cell in {@link Graph}
      */
-    private final Vector position;
-    /**
-     * FieldType of Node in {@link logic.board.Board}
-     */
-    private final FieldType fieldType;
-
-    /**
-     * Distance from Start Node
-     */
-    private int distanceFromStart = Integer.MAX_VALUE;
-    /**
-     * Path of Nodes from Start Node
-     */
-    private List<Node> pathFromStart = new ArrayList<>();
-    /**
-     * Start Node
-     */
-    private Node start = this;
-    /**
-     * Predecessor (as seen from Start Node / Path) Node
-     */
-    private Node predecessor = null;
+    private final int index;
 
     /**
      * Initiate a new Node.
      *
-     * @param position  position of Node
-     * @param fieldType fieldType of Node
+     * @param graph graph of Node
+     * @param index index of cell in graph
      */
-    public Node(Vector position, FieldType fieldType) {
-        assert position != null;
-        assert fieldType != null;
+    Node(Graph graph, int index) {
+        assert graph != null;
 
-        this.position = position;
-        this.fieldType = fieldType;
-        this.adjacent = new ArrayList<>();
+        this.graph = graph;
+        this.index = index;
     }
 
     /**
-     * Add edge from this node to adjacent Node
+     * Get index of cell in {@link Graph}
      *
-     * @param node toNode
+     * @return y * width + x
      */
-    public void edgeTo(Node node) {
-        adjacent.add(new Edge(node));
+    public int getIndex() {
+        return index;
     }
 
     /**
@@ -70,7 +46,7 @@ class Node {
      * @return x coordinate of position
      */
     public int X() {
-        return position.X();
+        return index % graph.getWidth();
     }
 
     /**
@@ -79,7 +55,7 @@ class Node {
      * @return y coordinate of position
      */
     public int Y() {
-        return position.Y();
+        return index / graph.getWidth();
     }
 
     /**
@@ -88,7 +64,7 @@ class Node {
      * @return position as vector
      */
     public Vector getPosition() {
-        return position;
+        return new Vector(X(), Y());
     }
 
     /**
@@ -97,149 +73,44 @@ class Node {
      * @return fieldType field type
      */
     public FieldType getFieldType() {
-        return fieldType;
-    }
-
-    /**
-     * Get List of adjacent
-     *
-     * @return list of adjacent edges
-     */
-    public List<Edge> getAdjacent() {
-        return new ArrayList<>(adjacent);
-    }
-
-    /**
-     * Generate edges to neighboring (in the sense of reachable) Nodes
-     *
-     * @param neighborMap map of neighbors
-     */
-    public void setAdjacent(Map<Vector, Node> neighborMap) {
-        /*
-         * List of offsetter functions used to get the fields of certain direction with specific distances
-         */
-        List<Function<Integer, Vector>> offsetters = List.of(
-                offset -> new Vector(X() + offset, Y()),
-                offset -> new Vector(X() - offset, Y()),
-                offset -> new Vector(X(), Y() + offset),
-                offset -> new Vector(X(), Y() - offset)
-        );
-
-        for (Function<Integer, Vector> offsetter : offsetters) {
-            var adjacentNode = neighborMap.get(offsetter.apply(1));
-            if (adjacentNode != null) {
-                var field = adjacentNode.getFieldType();
-                if (FieldType.isWalkable(field)) {
-                    this.edgeTo(adjacentNode);
-                }
-                if (FieldType.isJumpable(field)) {
-                    var jumpNode = neighborMap.get(offsetter.apply(2));
-                    if (jumpNode != null) {
-                        this.edgeTo(jumpNode);
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * Calc distance from this to eval Node
-     *
-     * @param evaluationNode eval Node
-     */
-    public void calcDistance(Node evaluationNode) {
-        final int edgeWeight = 1;
-
-        if (this.distanceFromStart + edgeWeight < evaluationNode.distanceFromStart) {
-            evaluationNode.distanceFromStart = this.distanceFromStart + edgeWeight;
-
-            List<Node> shortestPath = new LinkedList<>(this.pathFromStart);
-            shortestPath.add(this);
-
-            this.predecessor = evaluationNode; // ???
-            evaluationNode.pathFromStart = shortestPath;
-        }
+        return graph.typeOf(index);
     }
 
     /**
-     * Gets distance from start.
+     * Gets distance from start of the last distance calculation of the graph.
      *
-     * @return the distance from start
+     * @return the distance from start, {@link Integer#MAX_VALUE} if node can't be reached
      */
     public int getDistanceFromStart() {
-        return distanceFromStart;
+        return graph.getDistances().distance(index);
     }
 
     /**
-     * Sets distance from start.
+     * Gets path from start, walking back the parents of the last distance calculation of the graph.
      *
-     * @param distanceFromStart the distance from start
-     */
-    public void setDistanceFromStart(int distanceFromStart) {
-        this.distanceFromStart = distanceFromStart;
-    }
-
-    /**
-     * Gets path from start.
-     *
-     * @return the path from start
+     * @return the path from start up to, but excluding this node. Empty if node is the start or can't be reached.
      */
     public List<Node> getPathFromStart() {
-        return new ArrayList<>(pathFromStart);
-    }
-
-    /**
-     * Sets path from start.
-     *
-     * @param pathFromStart the path from start
-     */
-    public void setPathFromStart(List<Node> pathFromStart) {
-        this.pathFromStart = pathFromStart;
-    }
-
-    /**
-     * Gets start.
-     *
-     * @return the start
-     */
-    public Node getStart() {
-        return start;
-    }
-
-    /**
-     * Sets start.
-     *
-     * @param start the start
-     */
-    public void setStart(Node start) {
-        this.start = start;
-    }
+        var cells = new CellPath();
+        cells.appendPathTo(graph.getDistances(), index);
 
-    /**
-     * Gets predecessor.
-     *
-     * @return the predecessor
-     */
-    public Node getPredecessor() {
-        return predecessor;
+        List<Node> path = new ArrayList<>(cells.length());
+        for (int i = 0; i < cells.length(); i++) path.add(new Node(graph, cells.get(i)));
+        return path;
     }
 
-    /**
-     * Sets predecessor.
-     *
-     * @param predecessor the predecessor
-     */
-    public void setPredecessor(Node predecessor) {
-        this.predecessor = predecessor;
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Node node && node.graph == this.graph && node.index == this.index;
     }
 
     @Override
     public int hashCode() {
-        return position.hashCode();
+        return index;
     }
 
     @Override
     public String toString() {
-        return String.format("%s(%d|%d)", fieldType, position.X(), position.Y());
+        return String.format("%s(%d|%d)", getFieldType(), X(), Y());
     }
 }
@@ -1,6 +1,5 @@
 package logic.board.graph;
 
-import logic.Direction;
 import logic.board.Board;
 import logic.board.FieldType;
 import logic.procedure.Instruction;
@@ -11,24 +10,39 @@ import java.util.*;
 
 /**
  * Pathfinder generates a graph from a board and then searches in the
- * resulting graph the optimal path between start and finish. The Path
- * is converted to instructions.
+ * resulting graph the optimal path between start and finish. Programs are
+ * searched over positions and directions of the bot, paths of cells over the graph.
  */
 public class PathFinder {
     /**
      * Graph generated from Board
      */
-    private Graph graph;
+    private final Graph graph;
     /**
      * Source board
      */
-    private Board board;
+    private final Board board;
 
     /**
      * Origin postion
      */
     private Vector origin;
 
+    /**
+     * Reused buffer of generated paths
+     */
+    private final CellPath path = new CellPath();
+
+    /**
+     * Point to point search over graph, created on first use
+     */
+    private PointQuery query;
+
+    /**
+     * Distances used by {@link #generateCompletePath(Vector)}, created on first use
+     */
+    private DistanceField distances;
+
     /**
      * Initiates a new Pathfinder. Uses board start position as origin.
      * @param board source board
@@ -49,183 +63,130 @@ public class PathFinder {
     }
 
     /**
-     * Sets new board and recalculates all path from origin
-     * @param board board
-     * @param origin origin (start) position
-     */
-    private void recalculate(Board board, Vector origin) {
-        this.board = board;
-        this.graph = Graph.of(board);
-        setOrigin(origin);
-    }
-
-    /**
-     * Sets origin position and if necessary recalculates distances from origin.
+     * Sets origin position. Distances aren't calculated here, paths are searched on demand.
      *
      * @param origin new origin position
-     * @return true, if origin changed and graph distances were recalculated
      */
-    public boolean setOrigin(Vector origin) {
-        boolean changeOrigin = this.origin == null || !this.origin.equals(origin);
-        if (changeOrigin) {
-            this.origin = origin;
-            this.graph.dijkstra(origin);
-
-            Log.debug("Recalculated distances from origin");
-        } else {
-            Log.warning("Origin didn't change. Skipped recalculation.");
-        }
-
-        return changeOrigin;
+    public void setOrigin(Vector origin) {
+        this.origin = origin;
     }
 
     /**
      * Generates list of instructions that first collect coins and then go to exit.
+     * The search runs over positions and directions of the bot, see {@link StateSpaceSolver},
+     * so every part of the program has the least count of instructions, turns included.
      *
      * @return list of instructions.
      */
     public List<Instruction> solve() {
-        var path = generateCompletePath();
-        return generateInstructionsFromPath(path);
+        var exit = board.positionOf(FieldType.DOOR);
+        return new StateSpaceSolver(graph).solve(
+                graph.index(origin.X(), origin.Y()),
+                board.getDirectionOfBot(),
+                graph.index(exit.X(), exit.Y()));
     }
 
     /**
      * Generates path from current origin to first occurrence of fieldType
      * @param fieldType fieldtype
-     * @return path of nodes to fieldtype
+     * @return path of cells to fieldtype, overwritten by the next generated path
      */
-    List<Node> pathTo(FieldType fieldType) {
+    CellPath pathTo(FieldType fieldType) {
         return pathTo(origin, board.positionOf(fieldType));
     }
 
     /**
      * Generates path to first occurrence of fieldType
      * @param fieldType fieldType
-     * @return list of nodes to fieldType
+     * @return path of cells to fieldType, overwritten by the next generated path
      */
-    List<Node> pathTo(Vector from, FieldType fieldType) {
+    CellPath pathTo(Vector from, FieldType fieldType) {
         return pathTo(from, board.positionOf(fieldType));
     }
 
     /**
-     * Generate path point a to b
+     * Generate path point a to b. Searches with A* on the graph of the board.
      * @param from point a
      * @param to point b
-     * @return list of nodes from a to b;
+     * @return path of cells from a to b, both included, empty if b can't be reached.
+     *         Overwritten by the next generated path
      */
-    List<Node> pathTo(Vector from, Vector to) {
-        Board originalBoard = this.board;
-        Vector originalOrigin = this.origin;
-
-        recalculate(board, from);
-
-        // path from last coin (or origin if no coins exist) to exit
-        var exit = graph.get(to);
-        LinkedList<Node> path = new LinkedList<>(exit.getPathFromStart());
-        path.addLast(exit);
-
-        // reset pathfinder
-        recalculate(originalBoard, originalOrigin);
+    CellPath pathTo(Vector from, Vector to) {
+        path.clear();
+        query().aStar(graph.index(from.X(), from.Y()), graph.index(to.X(), to.Y()), path);
         return path;
     }
 
     /**
-     * Generate complete path to exit from origin.
+     * Generate complete path to exit from origin. Always the nearest coin left is collected next.
+     * Collected coins are only marked, neither the board nor the graph are changed.
      * @param newOrigin set a new origin
-     * @return complete path to exit (door);
+     * @return complete path of cells to exit (door), empty if a coin or the exit can't be reached.
+     *         Overwritten by the next generated path
      */
-    List<Node> generateCompletePath(Vector newOrigin) {
+    CellPath generateCompletePath(Vector newOrigin) {
         assert newOrigin != null;
-        Board originalBoard = this.board;
-        Vector originalOrigin = this.origin;
-
         setOrigin(newOrigin);
 
-        List<Node> completePath = new LinkedList<>();
-        List<Node> coins = graph.getCoins();
-
-        // generate path to all coins
-        while (!coins.isEmpty()) {
-            // sorting by distance to origin
-            coins.sort(Comparator.comparingInt(Node::getDistanceFromStart));
-            // selecting closest to origin
-            Node coin = coins.get(0);
-            // add nodes from origin to coin
-            completePath.addAll(coin.getPathFromStart());
-            Log.debug("COIN: DISTANCE=%s | PATH=%s\n", coin.getDistanceFromStart(), coin.getPathFromStart());
-            // remove coin from board
-            board.set(coin.getPosition(), FieldType.NORMAL);
-            // recalculate distance -> use last coin location as new origin
-            recalculate(board, coin.getPosition());
-            // update coins list
-            coins = graph.getCoins();
+        path.clear();
+        if (distances == null) distances = new DistanceField(graph);
+
+        final int[] coins = graph.coinCells();
+        final boolean[] collected = new boolean[coins.length];
+        int current = graph.index(origin.X(), origin.Y());
+
+        // generate path to all coins, the last coin is the origin of the next part
+        for (int left = coins.length; left > 0; left--) {
+            distances.compute(current);
+
+            int nearest = -1;
+            int nearestDistance = DistanceField.UNREACHABLE;
+            for (int i = 0; i < coins.length; i++) {
+                final int distance = distances.distance(coins[i]);
+                if (!collected[i] && distance < nearestDistance) {
+                    nearest = i;
+                    nearestDistance = distance;
+                }
+            }
+            if (nearest < 0) {
+                path.clear();
+                return path;
+            }
+
+            collected[nearest] = true;
+            current = coins[nearest];
+            path.appendPathTo(distances, current);
+            Log.debug("COIN: DISTANCE=%s | PATH=%s\n", distances.distance(current), path);
         }
+
         // path from last coin (or origin if no coins exist) to exit
-        var exit = graph.get(board.positionOf(FieldType.DOOR));
-        completePath.addAll(exit.getPathFromStart());
-        completePath.add(exit);
-        Log.debug("Complete Path Length: %d\n", completePath.size());
-
-        // reset pathfinder
-        recalculate(originalBoard, originalOrigin);
-        return completePath;
+        var exit = board.positionOf(FieldType.DOOR);
+        final int door = graph.index(exit.X(), exit.Y());
+        distances.compute(current);
+        if (!path.appendPathTo(distances, door)) {
+            path.clear();
+            return path;
+        }
+        path.add(door);
+        Log.debug("Complete Path Length: %d\n", path.length());
+
+        return path;
     }
 
     /**
      * Generate complete path from origin to exit
-     * @return complete path of nodes to exit
+     * @return complete path of cells to exit, overwritten by the next generated path
      */
-    List<Node> generateCompletePath() {
+    CellPath generateCompletePath() {
         return generateCompletePath(origin);
     }
 
     /**
-     * Generates a list of instructions from given path
-     *
-     * @param pathNodes list of connected nodes
-     * @return list of instructions following path
-     */
-    private List<Instruction> generateInstructionsFromPath(List<Node> pathNodes) {
-        Queue<Node> path = new LinkedList<>(pathNodes);
-        Direction currentDirectionOfBot = board.getDirectionOfBot();
-        List<Instruction> instructions = new ArrayList<>(path.size());
-
-        // iterate over path
-        while (!path.isEmpty()) {
-            var current = path.poll();
-            var next = path.peek();
-            assert next != null;
-
-            // only turn when needed
-            var expectedNextPosition = current.getPosition().add(currentDirectionOfBot.vector());
-            var actualNextPosition = next.getPosition();
-            if (!expectedNextPosition.equals(actualNextPosition)) {
-                var turn = Direction.rotateFromTo(
-                        current.getPosition(),
-                        next.getPosition(),
-                        currentDirectionOfBot);
-                instructions.addAll(turn);
-
-                currentDirectionOfBot = Direction.fromTo(current.getPosition(), next.getPosition());
-            }
-
-            // if handle exit or movement
-            if (next.getFieldType() == FieldType.DOOR) {
-                // add exit and clear queue
-                instructions.add(Instruction.EXIT);
-                path.clear();
-            } else {
-                // handle jumps and movements
-                var length = current.getPosition().distanceTo(next.getPosition());
-                var move = switch (length) {
-                    case 1 -> Instruction.FORWARD;
-                    case 2 -> Instruction.JUMP;
-                    default -> throw new IllegalStateException("length of difference too large");
-                };
-                instructions.add(move);
-            }
-        }
-
-        return instructions;
+     * Point to point search over the graph, created on first use
+     * @return point query
+     */
+    private PointQuery query() {
+        if (query == null) query = new PointQuery(graph);
+        return query;
     }
 }
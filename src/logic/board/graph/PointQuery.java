@@ -0,0 +1,302 @@
+package logic.board.graph;
+
+import java.util.Arrays;
+
+/**
+ * Answers shortest path queries between two cells of a {@link Graph}, without computing a full distance field.
+ * Two searches are available:
+ * <ul>
+ *     <li>{@link #aStar(int, int, CellPath)} expands cells in order of distance plus an estimate of the
+ *     remaining distance. An edge moves the bot at most two cells in a straight line (a jump), so half of the
+ *     Manhattan distance, rounded up, never overestimates the remaining edges.</li>
+ *     <li>{@link #bidirectional(int, int, CellPath)} runs breadth-first searches from both ends, along the edges
+ *     from the start and against the edges from the target, until they meet.</li>
+ * </ul>
+ * The graph is only read, so any number of queries may share it. The scratch arrays belong to this query,
+ * use one instance per thread. Cells are marked with the number of the query that reached them, so the arrays
+ * are never cleared between queries.
+ */
+final class PointQuery {
+    /**
+     * Marks a cell that has no previous or next cell
+     */
+    private static final int NONE = -1;
+
+    /**
+     * searched graph
+     */
+    private final Graph graph;
+    /**
+     * reversed edges of graph
+     */
+    private final Graph.Incoming incoming;
+    /**
+     * number of the current query, cells marked with an older number weren't reached yet
+     */
+    private int query;
+    /**
+     * number of query that reached a cell from the start
+     */
+    private final int[] seen;
+    /**
+     * number of query that reached a cell from the target
+     */
+    private final int[] seenBackward;
+    /**
+     * distance from start by cell
+     */
+    private final int[] distance;
+    /**
+     * distance to target by cell
+     */
+    private final int[] distanceBackward;
+    /**
+     * previous cell on the path from start by cell
+     */
+    private final int[] parent;
+    /**
+     * next cell on the path to target by cell
+     */
+    private final int[] next;
+    /**
+     * queue of forward search
+     */
+    private final int[] queue;
+    /**
+     * queue of backward search
+     */
+    private final int[] queueBackward;
+    /**
+     * cells of the open set of A*, a binary heap ordered by {@link #heapKeys}
+     */
+    private int[] heapCells;
+    /**
+     * estimated length of path through a cell of the open set
+     */
+    private int[] heapKeys;
+    /**
+     * count of cells in heap
+     */
+    private int heapSize;
+
+    /**
+     * Instantiates a new query
+     * @param graph graph
+     */
+    PointQuery(Graph graph) {
+        this.graph = graph;
+        this.incoming = graph.incoming();
+
+        final int cells = graph.size();
+        this.seen = new int[cells];
+        this.seenBackward = new int[cells];
+        this.distance = new int[cells];
+        this.distanceBackward = new int[cells];
+        this.parent = new int[cells];
+        this.next = new int[cells];
+        this.queue = new int[cells];
+        this.queueBackward = new int[cells];
+        this.heapCells = new int[16];
+        this.heapKeys = new int[16];
+    }
+
+    /**
+     * Graph of this query
+     * @return graph
+     */
+    Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Finds a shortest path with A*
+     * @param from index of start cell
+     * @param to index of target cell
+     * @param path receives the cells from start to target, both included. Nothing is appended if target can't be reached.
+     * @return count of edges on path, -1 if target can't be reached
+     */
+    int aStar(int from, int to, CellPath path) {
+        final int mark = nextQuery();
+        final int width = graph.getWidth();
+        final int toX = to % width;
+        final int toY = to / width;
+
+        heapSize = 0;
+        seen[from] = mark;
+        distance[from] = 0;
+        parent[from] = NONE;
+        push(from, estimate(from, toX, toY, width));
+
+        while (heapSize > 0) {
+            final int key = heapKeys[0];
+            final int current = pop();
+            // a cell is pushed again when a shorter path is found, the old entry is skipped
+            if (key - estimate(current, toX, toY, width) != distance[current]) continue;
+            if (current == to) {
+                path.appendParents(parent, to, distance[to] + 1);
+                return distance[to];
+            }
+
+            final int length = distance[current] + 1;
+            for (int edge = graph.firstEdge(current); edge < graph.endEdge(current); edge++) {
+                final int target = graph.target(edge);
+                if (seen[target] == mark && distance[target] <= length) continue;
+
+                seen[target] = mark;
+                distance[target] = length;
+                parent[target] = current;
+                push(target, length + estimate(target, toX, toY, width));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a shortest path with a bidirectional breadth-first search. The side with the smaller frontier
+     * is expanded by a whole level at a time, the best meeting cell of that level gives a shortest path.
+     *
+     * @param from index of start cell
+     * @param to index of target cell
+     * @param path receives the cells from start to target, both included. Nothing is appended if target can't be reached.
+     * @return count of edges on path, -1 if target can't be reached
+     */
+    int bidirectional(int from, int to, CellPath path) {
+        final int mark = nextQuery();
+
+        seen[from] = mark;
+        distance[from] = 0;
+        parent[from] = NONE;
+        seenBackward[to] = mark;
+        distanceBackward[to] = 0;
+        next[to] = NONE;
+
+        int meet = from == to ? from : NONE;
+        int head = 0;
+        int tail = 0;
+        int headBackward = 0;
+        int tailBackward = 0;
+        queue[tail++] = from;
+        queueBackward[tailBackward++] = to;
+
+        while (meet == NONE && head < tail && headBackward < tailBackward) {
+            int best = Integer.MAX_VALUE;
+            if (tail - head <= tailBackward - headBackward) {
+                // one level along the edges
+                final int end = tail;
+                while (head < end) {
+                    final int current = queue[head++];
+                    for (int edge = graph.firstEdge(current); edge < graph.endEdge(current); edge++) {
+                        final int target = graph.target(edge);
+                        if (seen[target] == mark) continue;
+
+                        seen[target] = mark;
+                        distance[target] = distance[current] + 1;
+                        parent[target] = current;
+                        queue[tail++] = target;
+                        if (seenBackward[target] == mark && distance[target] + distanceBackward[target] < best) {
+                            best = distance[target] + distanceBackward[target];
+                            meet = target;
+                        }
+                    }
+                }
+            } else {
+                // one level against the edges
+                final int end = tailBackward;
+                while (headBackward < end) {
+                    final int current = queueBackward[headBackward++];
+                    for (int edge = incoming.offsets()[current]; edge < incoming.offsets()[current + 1]; edge++) {
+                        final int source = incoming.sources()[edge];
+                        if (seenBackward[source] == mark) continue;
+
+                        seenBackward[source] = mark;
+                        distanceBackward[source] = distanceBackward[current] + 1;
+                        next[source] = current;
+                        queueBackward[tailBackward++] = source;
+                        if (seen[source] == mark && distance[source] + distanceBackward[source] < best) {
+                            best = distance[source] + distanceBackward[source];
+                            meet = source;
+                        }
+                    }
+                }
+            }
+        }
+        if (meet == NONE) return -1;
+
+        path.appendParents(parent, meet, distance[meet] + 1);
+        if (meet != to) path.appendNext(next, next[meet], distanceBackward[meet]);
+        return distance[meet] + distanceBackward[meet];
+    }
+
+    /**
+     * Starts a new query, cells reached by earlier queries are forgotten
+     * @return number of new query
+     */
+    private int nextQuery() {
+        if (++query == 0) {
+            // after an overflow old marks could match again
+            Arrays.fill(seen, 0);
+            Arrays.fill(seenBackward, 0);
+            query = 1;
+        }
+        return query;
+    }
+
+    /**
+     * Least count of edges from a cell to the target: an edge moves at most two cells
+     * @param cell index of cell
+     * @param toX x coordinate of target
+     * @param toY y coordinate of target
+     * @param width width of board
+     * @return half of Manhattan distance, rounded up
+     */
+    private static int estimate(int cell, int toX, int toY, int width) {
+        final int manhattan = Math.abs(cell % width - toX) + Math.abs(cell / width - toY);
+        return (manhattan + 1) / 2;
+    }
+
+    /**
+     * Adds a cell to the heap
+     * @param cell index of cell
+     * @param key estimated length of path through cell
+     */
+    private void push(int cell, int key) {
+        if (heapSize == heapCells.length) {
+            heapCells = Arrays.copyOf(heapCells, 2 * heapSize);
+            heapKeys = Arrays.copyOf(heapKeys, 2 * heapSize);
+        }
+
+        int i = heapSize++;
+        while (i > 0) {
+            final int up = (i - 1) / 2;
+            if (heapKeys[up] <= key) break;
+            heapCells[i] = heapCells[up];
+            heapKeys[i] = heapKeys[up];
+            i = up;
+        }
+        heapCells[i] = cell;
+        heapKeys[i] = key;
+    }
+
+    /**
+     * Removes the cell with the smallest key from the heap
+     * @return index of cell
+     */
+    private int pop() {
+        final int top = heapCells[0];
+        final int cell = heapCells[--heapSize];
+        final int key = heapKeys[heapSize];
+
+        int i = 0;
+        while (2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) child++;
+            if (key <= heapKeys[child]) break;
+            heapCells[i] = heapCells[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapCells[i] = cell;
+        heapKeys[i] = key;
+        return top;
+    }
+}
@@ -0,0 +1,271 @@
+package logic.board.graph;
+
+import logic.Direction;
+import logic.board.FieldType;
+import logic.exception.UnreachableFieldException;
+import logic.procedure.Instruction;
+import logic.util.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Finds programs with the least instructions. The search runs over states of the bot, a cell and a direction,
+ * so turns are part of the path instead of being added afterwards. {@link Instruction#FORWARD},
+ * {@link Instruction#JUMP}, {@link Instruction#TURN_LEFT} and {@link Instruction#TURN_RIGHT} each cost one
+ * instruction. With equal costs a breadth-first search over the states visits them in order of
+ * instruction count, every state is queued at most once.
+ * <p>
+ * Moves follow the edges of the {@link Graph}, which follow the rules of {@link logic.Bot}: the bot moves onto
+ * walkable fields and jumps over jumpable fields onto walkable fields, the door included. The edge of a state is
+ * the one in the direction of the bot. To exit, the bot has to stand in front of the door, facing it.
+ * The arrays are allocated once and reused for every search.
+ */
+final class StateSpaceSolver {
+    /**
+     * Cached values of {@link Direction}, indexed by ordinal
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+    /**
+     * Cached values of {@link Instruction}, indexed by ordinal
+     */
+    private static final Instruction[] INSTRUCTIONS = Instruction.values();
+    /**
+     * Count of directions
+     */
+    private static final int DIRECTION_COUNT = DIRECTIONS.length;
+    /**
+     * Distance of states that can't be reached
+     */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * searched graph
+     */
+    private final Graph graph;
+    /**
+     * count of instructions from source by state
+     */
+    private final int[] distance;
+    /**
+     * previous state by state
+     */
+    private final int[] parent;
+    /**
+     * ordinal of instruction leading to a state from its parent
+     */
+    private final byte[] move;
+    /**
+     * states in order of discovery
+     */
+    private final int[] queue;
+    /**
+     * reused buffer of instructions, filled back to front
+     */
+    private Instruction[] segment = new Instruction[16];
+
+    /**
+     * Instantiates a new solver
+     * @param graph graph of board
+     */
+    StateSpaceSolver(Graph graph) {
+        this.graph = graph;
+        final int states = graph.size() * DIRECTION_COUNT;
+        this.distance = new int[states];
+        this.parent = new int[states];
+        this.move = new byte[states];
+        this.queue = new int[states];
+    }
+
+    /**
+     * State of the bot
+     * @param cell index of cell
+     * @param direction ordinal of direction
+     * @return index of state
+     */
+    static int state(int cell, int direction) {
+        return cell * DIRECTION_COUNT + direction;
+    }
+
+    /**
+     * Generates a program that collects all coins and exits through the door.
+     * Coins are collected nearest first, measured in instructions. Coins passed on the way are collected too.
+     *
+     * @param start index of start cell
+     * @param direction start direction
+     * @param door index of door cell
+     * @return instructions, ending with {@link Instruction#EXIT}
+     * @throws UnreachableFieldException if a coin or the door can't be reached
+     * @throws CancellationException if the current thread is interrupted
+     */
+    List<Instruction> solve(int start, Direction direction, int door) {
+        boolean[] coins = new boolean[graph.size()];
+        int remaining = 0;
+        for (int cell = 0; cell < graph.size(); cell++) {
+            if (graph.typeOf(cell) == FieldType.COIN) {
+                coins[cell] = true;
+                remaining++;
+            }
+        }
+
+        List<Instruction> instructions = new ArrayList<>();
+        int current = state(start, direction.ordinal());
+        while (remaining > 0) {
+            compute(current);
+
+            int nearest = -1;
+            for (int cell = 0; cell < coins.length; cell++) {
+                if (!coins[cell]) continue;
+                for (int d = 0; d < DIRECTION_COUNT; d++) {
+                    final int state = state(cell, d);
+                    if (distance[state] != UNREACHABLE && (nearest < 0 || distance[state] < distance[nearest])) nearest = state;
+                }
+            }
+            if (nearest < 0) throw new UnreachableFieldException(FieldType.COIN, firstCoin(coins));
+
+            remaining -= appendSegment(nearest, instructions, coins);
+            current = nearest;
+        }
+
+        // exit while standing in front of the door, facing it
+        compute(current);
+        int exit = -1;
+        final int doorX = door % graph.getWidth();
+        final int doorY = door / graph.getWidth();
+        for (int d = 0; d < DIRECTION_COUNT; d++) {
+            final int x = doorX - DIRECTIONS[d].vector().X();
+            final int y = doorY - DIRECTIONS[d].vector().Y();
+            if (!contains(x, y)) continue;
+
+            final int state = state(graph.index(x, y), d);
+            if (distance[state] != UNREACHABLE && (exit < 0 || distance[state] < distance[exit])) exit = state;
+        }
+        if (exit < 0) throw new UnreachableFieldException(FieldType.DOOR, new Vector(doorX, doorY));
+
+        appendSegment(exit, instructions, coins);
+        instructions.add(Instruction.EXIT);
+        return instructions;
+    }
+
+    /**
+     * Computes the least count of instructions from a state to all states
+     * @param source index of source state
+     * @throws CancellationException if the current thread is interrupted
+     */
+    void compute(int source) {
+        // a search may take long on large boards, an interrupted thread gives up between searches
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException("Solver was interrupted");
+        Arrays.fill(distance, UNREACHABLE);
+
+        int head = 0;
+        int tail = 0;
+        distance[source] = 0;
+        parent[source] = -1;
+        queue[tail++] = source;
+
+        while (head < tail) {
+            final int current = queue[head++];
+            final int cell = current / DIRECTION_COUNT;
+            final int direction = current % DIRECTION_COUNT;
+            final int next = distance[current] + 1;
+
+            tail = visit(state(cell, (direction + DIRECTION_COUNT - 1) % DIRECTION_COUNT), current, Instruction.TURN_LEFT, next, tail);
+            tail = visit(state(cell, (direction + 1) % DIRECTION_COUNT), current, Instruction.TURN_RIGHT, next, tail);
+
+            final int dx = DIRECTIONS[direction].vector().X();
+            final int dy = DIRECTIONS[direction].vector().Y();
+            final int x = cell % graph.getWidth();
+            final int y = cell / graph.getWidth();
+            for (int edge = graph.firstEdge(cell); edge < graph.endEdge(cell); edge++) {
+                final int target = graph.target(edge);
+                final int tx = target % graph.getWidth() - x;
+                final int ty = target / graph.getWidth() - y;
+                // every direction has at most one edge, a move onto the next field or a jump over it
+                if (tx == dx && ty == dy) {
+                    tail = visit(state(target, direction), current, Instruction.FORWARD, next, tail);
+                } else if (tx == 2 * dx && ty == 2 * dy) {
+                    tail = visit(state(target, direction), current, Instruction.JUMP, next, tail);
+                }
+            }
+        }
+    }
+
+    /**
+     * Count of instructions from the source of the last {@link #compute(int)}
+     * @param state index of state
+     * @return count of instructions, {@link Integer#MAX_VALUE} if state can't be reached
+     */
+    int distance(int state) {
+        return distance[state];
+    }
+
+    /**
+     * Queues a state if it wasn't reached yet
+     * @param state reached state
+     * @param from previous state
+     * @param instruction instruction leading from previous state to state
+     * @param distance count of instructions to state
+     * @param tail end of queue
+     * @return new end of queue
+     */
+    private int visit(int state, int from, Instruction instruction, int distance, int tail) {
+        if (this.distance[state] != UNREACHABLE) return tail;
+
+        this.distance[state] = distance;
+        this.parent[state] = from;
+        this.move[state] = (byte) instruction.ordinal();
+        queue[tail] = state;
+        return tail + 1;
+    }
+
+    /**
+     * Appends the instructions from the source of the last {@link #compute(int)} to a state,
+     * walking the parents back into the reused segment buffer
+     * @param target index of target state
+     * @param instructions receives instructions
+     * @param coins coins by cell, coins on the way are removed
+     * @return count of removed coins
+     */
+    private int appendSegment(int target, List<Instruction> instructions, boolean[] coins) {
+        final int count = distance[target];
+        if (segment.length < count) segment = new Instruction[Math.max(count, 2 * segment.length)];
+
+        int collected = 0;
+        int state = target;
+        for (int i = count - 1; i >= 0; i--) {
+            segment[i] = INSTRUCTIONS[move[state]];
+            final int cell = state / DIRECTION_COUNT;
+            if (coins[cell]) {
+                coins[cell] = false;
+                collected++;
+            }
+            state = parent[state];
+        }
+
+        instructions.addAll(Arrays.asList(segment).subList(0, count));
+        return collected;
+    }
+
+    /**
+     * Position of the first remaining coin
+     * @param coins coins by cell
+     * @return position of coin
+     */
+    private Vector firstCoin(boolean[] coins) {
+        int cell = 0;
+        while (!coins[cell]) cell++;
+        return new Vector(cell % graph.getWidth(), cell / graph.getWidth());
+    }
+
+    /**
+     * Whether a position is inside of the board
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return true, if inside
+     */
+    private boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < graph.getWidth() && y < graph.getHeight();
+    }
+}
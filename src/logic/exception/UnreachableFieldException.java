@@ -0,0 +1,32 @@
+package logic.exception;
+
+import logic.board.FieldType;
+import logic.util.Vector;
+
+/**
+ * A field can't be reached by any program, e.g. a door that can only be reached by jumping onto it
+ */
+public class UnreachableFieldException extends IllegalStateException {
+    /**
+     * type of field
+     */
+    private final FieldType fieldType;
+    /**
+     * position of field
+     */
+    private final Vector position;
+
+    public UnreachableFieldException(FieldType fieldType, Vector position) {
+        super(fieldType + " can't be reached: " + position);
+        this.fieldType = fieldType;
+        this.position = position;
+    }
+
+    public FieldType getFieldType() {
+        return fieldType;
+    }
+
+    public Vector getPosition() {
+        return position;
+    }
+}
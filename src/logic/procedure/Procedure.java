@@ -1,9 +1,9 @@
 package logic.procedure;
 
-import com.google.gson.Gson;
 import logic.util.Log;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -236,6 +236,8 @@ public class Procedure implements Queue<Instruction> {
 
         // outer loop, removes from front (sequencer)
         while (!outerSequenceQueue.isEmpty()) {
+            // the search grows fast with the count of instructions, an interrupted thread gives up
+            if (Thread.currentThread().isInterrupted()) throw new CancellationException("Sequence search was interrupted");
             var innerSequenceQueue = new LinkedList<>(outerSequenceQueue);
             Map<List<Instruction>, List<Integer>> subSeqs = new HashMap<>();
 
@@ -426,7 +428,11 @@ public class Procedure implements Queue<Instruction> {
 
     @Override
     public String toString() {
-        return "Procedure" + new Gson().toJson(this.instructions);
+        var json = new StringJoiner(",", "Procedure[", "]");
+        for (Instruction instruction : instructions) {
+            json.add("\"" + instruction.name() + "\"");
+        }
+        return json.toString();
     }
 
     @Override
@@ -1,7 +1,12 @@
 package logic.util;
 
-import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -9,6 +14,7 @@ import java.util.Arrays;
  *
  * @author orcid.org/0009-0008-3023-1228 (inf104662)
  */
+@JsonAdapter(Vector.JsonAdapter.class)
 public final class Vector {
     private final int x;
     private final int y;
@@ -168,6 +174,48 @@ public final class Vector {
 
     @Override
     public String toString() {
-        return new Gson().toJson(this);
+        return "{\"x\":" + x + ",\"y\":" + y + ",\"z\":" + z + "}";
+    }
+
+    /**
+     * Writes vectors as {@code {"x":1,"y":4,"z":0}} without reflection.
+     * Missing coordinates are read as 0, unknown keys are skipped.
+     */
+    public static class JsonAdapter extends TypeAdapter<Vector> {
+        @Override
+        public void write(JsonWriter out, Vector value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("x").value(value.x);
+            out.name("y").value(value.y);
+            out.name("z").value(value.z);
+            out.endObject();
+        }
+
+        @Override
+        public Vector read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            int x = 0, y = 0, z = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "x" -> x = in.nextInt();
+                    case "y" -> y = in.nextInt();
+                    case "z" -> z = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new Vector(x, y, z);
+        }
     }
 }
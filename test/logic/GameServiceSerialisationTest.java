@@ -1,5 +1,6 @@
 package logic;
 
+import com.google.gson.JsonSyntaxException;
 import logic.board.GameLevel;
 import logic.exception.validation.ValidationException;
 import logic.exception.validation.MissingKeyException;
@@ -17,6 +18,26 @@ public class GameServiceSerialisationTest {
         GameLevel.fromJson(gameDataAsJson);
     }
 
+    @Test
+    public void unknownKeys_areSkipped() {
+        var gameDataAsJson = "{\"name\":\"Level\",\"author\":{\"id\":[1,2]},\"field\":[[4,3,2]],\"botRotation\":2}";
+        var level = GameLevel.fromJson(gameDataAsJson);
+        assert level.getName().equals("Level");
+        assert level.getStartBotDirection() == Direction.SOUTH;
+        assert GameLevel.fromJson(level.toJson()).getBoard().equals(level.getBoard());
+    }
+
+    @Test
+    public void document_behavesLikeGson() {
+        assert GameLevel.fromJson("") == null;
+        try {
+            GameLevel.fromJson("{\"field\":[[4,3,2]],\"botRotation\":2} {}");
+        } catch (JsonSyntaxException e) {
+            return;
+        }
+        throw new AssertionError("Trailing data should be rejected");
+    }
+
     @Test
     public void missingKey_field() throws Exception {
         try {
@@ -55,6 +76,18 @@ public class GameServiceSerialisationTest {
         GameLevel.fromJson(gameDataAsJson);
     }
 
+    @Test(expected = ValidationException.class)
+    public void field_rowTooShort() {
+        var gameDataAsJson = "{\"field\":[[4,5,3,3,3,5,5,5],[3,5,3,5,3,5,5],[3,3,3,5,3,3,3,2]],\"botRotation\":2}";
+        GameLevel.fromJson(gameDataAsJson);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void field_rowTooLong() {
+        var gameDataAsJson = "{\"field\":[[4,5,3,3,3,5,5,5],[3,3,3,5,3,3,3,2,3]],\"botRotation\":2}";
+        GameLevel.fromJson(gameDataAsJson);
+    }
+
     @Test(expected = UnexpectedTypeException.class)
     public void botRotation_NaN() {
         var gameDataAsJson = "{\"field\":[[4,5,3,3,3,5,5,5],[3,5,3,5,3,5,5,5],[3,5,3,5,3,5,5,5],[3,5,3,5,3,5,5,5],[3,5,3,5,3,5,5,5],[3,5,3,5,3,5,5,5],[3,5,3,5,3,5,5,5],[3,3,3,5,3,3,3,2]],\"botRotation\":\"NORTH\"}";
@@ -0,0 +1,146 @@
+package logic.board;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchAnalyzerTest {
+
+    @Test
+    public void analyze_reportsEveryLevelInOrder() throws InterruptedException {
+        var sources = List.of(
+                BatchAnalyzer.Source.of("valid", "{\"field\": [[4, 3, 3, 2]], \"botRotation\": 1}"),
+                BatchAnalyzer.Source.of("unreachable", "{\"field\": [[4, 5, 3, 2]], \"botRotation\": 1}"),
+                BatchAnalyzer.Source.of("broken", "{\"field\": [[4, 3, 3, 2]]}")
+        );
+
+        List<BatchAnalyzer.Result> results;
+        try (var analyzer = new BatchAnalyzer(2, Duration.ofSeconds(10))) {
+            results = analyzer.analyze(sources);
+        }
+
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals("valid", results.get(0).name());
+        Assert.assertEquals(BatchAnalyzer.Status.VALID, results.get(0).status());
+        Assert.assertEquals(3, results.get(0).solutionSizes().size());
+        Assert.assertEquals(BatchAnalyzer.Status.INVALID, results.get(1).status());
+        Assert.assertEquals(Board.ProblemType.NOT_REACHABLE, results.get(1).problems().get(0).problemType());
+        Assert.assertEquals(BatchAnalyzer.Status.FAILED, results.get(2).status());
+        Assert.assertNotNull(results.get(2).error());
+    }
+
+    @Test
+    public void analyze_reportsErrorsAsFailed() throws InterruptedException {
+        var error = new StackOverflowError("Board is too deep");
+        var overflowing = new BatchAnalyzer.Source("overflowing", (BatchAnalyzer.LevelSupplier) () -> {
+            throw error;
+        });
+
+        List<BatchAnalyzer.Result> results;
+        try (var analyzer = new BatchAnalyzer(1, Duration.ofSeconds(10))) {
+            results = analyzer.analyze(List.of(overflowing));
+        }
+
+        Assert.assertEquals(BatchAnalyzer.Status.FAILED, results.get(0).status());
+        Assert.assertSame(error, results.get(0).error());
+    }
+
+    @Test
+    public void analyze_releasesFinishedLevels() throws InterruptedException {
+        List<BatchAnalyzer.Source> sources = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) sources.add(BatchAnalyzer.Source.of(String.valueOf(i), "{\"field\": [[4, 3, 2]], \"botRotation\": 1}"));
+
+        try (var analyzer = new BatchAnalyzer(4, Duration.ofHours(1))) {
+            Assert.assertEquals(2000, analyzer.analyze(sources).size());
+            // the timeouts of finished levels don't keep them until the timeout fires
+            Assert.assertEquals(0, analyzer.scheduledTimeouts());
+        }
+    }
+
+    @Test
+    public void analyze_timesOutSlowLevel() throws InterruptedException {
+        var slow = new BatchAnalyzer.Source("slow", () -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            return Reader.nullReader();
+        });
+        var fast = BatchAnalyzer.Source.of("fast", "{\"field\": [[4, 3, 3, 2]], \"botRotation\": 1}");
+
+        List<BatchAnalyzer.Result> results;
+        try (var analyzer = new BatchAnalyzer(1, Duration.ofMillis(100))) {
+            results = analyzer.analyze(List.of(slow, fast));
+        }
+
+        Assert.assertEquals(BatchAnalyzer.Status.TIMED_OUT, results.get(0).status());
+        Assert.assertEquals(BatchAnalyzer.Status.VALID, results.get(1).status());
+    }
+
+    @Test
+    public void analyze_interruptsTimedOutLevels() throws InterruptedException {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var interrupted = new AtomicInteger();
+        var slow = new BatchAnalyzer.Source("slow", () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            } finally {
+                running.decrementAndGet();
+            }
+            return Reader.nullReader();
+        });
+        var fast = BatchAnalyzer.Source.of("fast", "{\"field\": [[4, 3, 3, 2]], \"botRotation\": 1}");
+
+        List<BatchAnalyzer.Result> results;
+        try (var analyzer = new BatchAnalyzer(1, Duration.ofMillis(100))) {
+            results = analyzer.analyze(List.of(slow, slow, fast));
+        }
+
+        Assert.assertEquals(BatchAnalyzer.Status.TIMED_OUT, results.get(0).status());
+        Assert.assertEquals(BatchAnalyzer.Status.TIMED_OUT, results.get(1).status());
+        Assert.assertEquals(BatchAnalyzer.Status.VALID, results.get(2).status());
+        // the second level only started after the first one gave up
+        Assert.assertEquals(1, maxRunning.get());
+        Assert.assertEquals(2, interrupted.get());
+    }
+
+    @Test
+    public void analyze_readsJsonAndBinaryFiles() throws IOException, InterruptedException {
+        var directory = Files.createTempDirectory("batch");
+        try {
+            Files.writeString(directory.resolve("a.json"), "{\"field\": [[4, 3, 3, 2]], \"botRotation\": 1}");
+            try (OutputStream out = Files.newOutputStream(directory.resolve("b" + LevelBinaryFormat.EXTENSION))) {
+                LevelBinaryFormat.write(GameLevel.fromJson("{\"field\": [[4, 5, 3, 2]], \"botRotation\": 1}"), out);
+            }
+            Files.writeString(directory.resolve("c.txt"), "not a level");
+
+            List<BatchAnalyzer.Result> results;
+            try (var analyzer = new BatchAnalyzer(2, Duration.ofSeconds(10))) {
+                results = analyzer.analyze(directory);
+            }
+
+            Assert.assertEquals(List.of("a.json", "b" + LevelBinaryFormat.EXTENSION),
+                    results.stream().map(BatchAnalyzer.Result::name).toList());
+            Assert.assertEquals(BatchAnalyzer.Status.VALID, results.get(0).status());
+            Assert.assertEquals(BatchAnalyzer.Status.INVALID, results.get(1).status());
+        } finally {
+            try (var files = Files.walk(directory)) {
+                for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package logic.board;
 
+import com.google.gson.Gson;
 import logic.Direction;
 import org.junit.Assert;
 import org.junit.Test;
 import logic.util.Vector;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static logic.board.FieldType.*;
 
@@ -80,6 +83,234 @@ public class BoardTest {
         Assert.assertTrue("board is isSolvable", level.getBoard().hasProblems());
     }
 
+    @Test
+    public void test_solvable_largeOpenBoard() {
+        var fields = new FieldType[2000][2000];
+        for (FieldType[] row : fields) {
+            Arrays.fill(row, NORMAL);
+        }
+        fields[0][0] = START;
+        fields[1999][1999] = DOOR;
+
+        Assert.assertTrue("board is isSolvable", new Board(Direction.EAST, fields).hasProblems());
+    }
+
+    @Test
+    public void index_followsSet() {
+        var board = Board.from(
+                Direction.NORTH,
+                List.of(NORMAL, COIN,   NORMAL),
+                List.of(START,  NORMAL, DOOR),
+                List.of(COIN,   ABYSS,  ABYSS)
+        );
+        Assert.assertEquals(2, board.count(COIN));
+        Assert.assertEquals(new Vector(1, 0), board.positionOf(COIN));
+
+        board.set(1, 0, NORMAL);
+        Assert.assertEquals(1, board.count(COIN));
+        Assert.assertEquals(List.of(new Vector(0, 2)), board.positionsOf(COIN));
+
+        board.set(0, 2, NORMAL);
+        Assert.assertFalse(board.hasCoins());
+        Assert.assertEquals(5, board.count(NORMAL));
+
+        board.set(2, 2, START);
+        Assert.assertEquals(2, board.count(START));
+        Assert.assertEquals(new Vector(0, 1), board.getStartPosition());
+    }
+
+    @Test
+    public void snapshot_isIndependentOfBoard() {
+        var board = Board.from(
+                Direction.NORTH,
+                List.of(NORMAL, COIN,   NORMAL),
+                List.of(START,  NORMAL, DOOR)
+        );
+        var copy = new Board(board);
+        var snapshot = board.snapshot();
+
+        board.set(1, 0, NORMAL);
+        Assert.assertEquals(COIN, copy.get(1, 0));
+        Assert.assertEquals(COIN, snapshot.get(1, 0));
+        Assert.assertEquals(1, snapshot.count(COIN));
+        Assert.assertNotEquals(board, copy);
+
+        var restored = snapshot.toBoard();
+        restored.set(0, 0, COIN);
+        Assert.assertEquals(NORMAL, snapshot.get(0, 0));
+        Assert.assertEquals(new Vector(1, 0), snapshot.positionOf(COIN));
+        Assert.assertEquals(new Vector(0, 0), restored.positionOf(COIN));
+        Assert.assertEquals(copy, snapshot.toBoard());
+    }
+
+    @Test
+    public void snapshot_createsBoardsOnThreads() {
+        var fields = new FieldType[2 * Tile.SIZE][2 * Tile.SIZE];
+        for (FieldType[] row : fields) Arrays.fill(row, NORMAL);
+        var board = new Board(Direction.NORTH, fields);
+        board.set(0, 0, START);
+        var snapshot = board.snapshot();
+
+        // every board writes its own field, the snapshot is shared but never written
+        var boards = IntStream.range(0, 64).parallel().mapToObj(i -> {
+            var restored = snapshot.toBoard();
+            restored.set(i + 1, i + 1, COIN);
+            return restored;
+        }).toList();
+
+        for (int i = 0; i < boards.size(); i++) {
+            Assert.assertEquals(1, boards.get(i).count(COIN));
+            Assert.assertEquals(COIN, boards.get(i).get(i + 1, i + 1));
+        }
+        Assert.assertEquals(0, snapshot.count(COIN));
+        Assert.assertEquals(board.snapshot(), snapshot);
+    }
+
+    @Test
+    public void tiles_uniformRegions() {
+        var fields = new FieldType[Tile.SIZE * 2][Tile.SIZE * 3];
+        for (FieldType[] row : fields) Arrays.fill(row, WALL);
+        for (int x = 0; x < fields[0].length; x++) fields[1][x] = NORMAL;
+        fields[1][0] = START;
+        fields[1][fields[0].length - 1] = DOOR;
+        var board = new Board(fields);
+
+        int uniform = 0;
+        for (Tile tile : board.tiles()) {
+            if (tile.isUniform()) {
+                Assert.assertEquals(WALL, tile.getUniformType());
+                uniform++;
+            }
+        }
+        Assert.assertEquals(3, uniform);
+        Assert.assertEquals(Tile.SIZE * 3 - 2, board.count(NORMAL));
+        Assert.assertTrue(board.hasProblems());
+
+        board.set(Tile.SIZE * 2, Tile.SIZE, COIN);
+        Assert.assertEquals(COIN, board.get(Tile.SIZE * 2, Tile.SIZE));
+        Assert.assertEquals(WALL, board.get(Tile.SIZE * 2 + 1, Tile.SIZE));
+        Assert.assertFalse(board.hasProblems());
+    }
+
+    @Test
+    public void hash_followsChanges() {
+        var board = Board.from(
+                Direction.NORTH,
+                List.of(NORMAL, COIN,   NORMAL),
+                List.of(START,  NORMAL, DOOR)
+        );
+        var copy = new Board(board);
+        Assert.assertEquals(board, copy);
+        Assert.assertEquals(board.hashCode(), copy.hashCode());
+
+        board.set(1, 0, NORMAL);
+        Assert.assertNotEquals(board.getHash(), copy.getHash());
+        board.set(1, 0, COIN);
+        Assert.assertEquals(board.getHash(), copy.getHash());
+
+        board.setBot(new Vector(1, 1), Direction.EAST);
+        Assert.assertNotEquals(board, copy);
+        board.setBot(new Vector(0, 1), Direction.NORTH);
+        Assert.assertEquals(board, copy);
+
+        var rebuilt = new Board(Direction.NORTH, board.toArray());
+        Assert.assertEquals(board.getHash(), rebuilt.getHash());
+        Assert.assertEquals(board.snapshot(), copy.snapshot());
+    }
+
+    @Test
+    public void hash_differsForShapes() {
+        var square = Board.from(
+                Direction.NORTH,
+                List.of(START, WALL),
+                List.of(WALL,  DOOR)
+        );
+        var row = Board.from(
+                Direction.NORTH,
+                List.of(START, WALL, WALL, DOOR)
+        );
+
+        Assert.assertNotEquals(square.getHash(), row.getHash());
+        Assert.assertNotEquals(square, row);
+    }
+
+    @Test
+    public void analysisCache_hitsUnchangedBoard() {
+        var cache = new AnalysisCache(2);
+        var board = Board.from(
+                Direction.EAST,
+                List.of(START, NORMAL, COIN, DOOR)
+        );
+
+        var first = cache.analyze(board);
+        var second = cache.analyze(new Board(board));
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(first.solution().toString(), second.solution().toString());
+        Assert.assertEquals(COIN, board.get(2, 0));
+
+        first.solution().get(0).clear();
+        Assert.assertFalse(cache.analyze(board).solution().get(0).isEmpty());
+
+        board.set(2, 0, WALL);
+        Assert.assertFalse(cache.analyze(board).problems().isEmpty());
+        Assert.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void reachabilityTracker_followsEdits() {
+        var board = Board.from(
+                Direction.EAST,
+                List.of(START, NORMAL, ABYSS, COIN, DOOR)
+        );
+        var tracker = new ReachabilityTracker(board);
+        Assert.assertTrue(tracker.getUnreachable().isEmpty());
+
+        board.set(2, 0, WALL);
+        tracker.update(2, 0);
+        Assert.assertFalse(tracker.isReachable(3, 0));
+        Assert.assertEquals(List.of(
+                new Board.Problem(Board.ProblemType.NOT_REACHABLE, DOOR, new Vector(4, 0)),
+                new Board.Problem(Board.ProblemType.NOT_REACHABLE, COIN, new Vector(3, 0))
+        ), tracker.getUnreachable());
+
+        board.set(2, 0, NORMAL);
+        tracker.update(2, 0);
+        Assert.assertTrue(tracker.isReachable(4, 0));
+        Assert.assertTrue(tracker.getUnreachable().isEmpty());
+    }
+
+    @Test
+    public void json_streamsLargeBoard() {
+        var random = new java.util.Random(3);
+        var fields = new FieldType[150][70];
+        for (FieldType[] row : fields) {
+            for (int x = 0; x < row.length; x++) row[x] = random.nextInt(4) == 0 ? NORMAL : WALL;
+        }
+        fields[149][69] = START;
+
+        var board = new Board(fields);
+        var parsed = new Gson().fromJson(new Gson().toJson(board), Board.class);
+        Assert.assertEquals(board, parsed);
+        Assert.assertEquals(new Vector(69, 149), parsed.getStartPosition());
+        Assert.assertEquals(board.count(NORMAL), parsed.count(NORMAL));
+    }
+
+    @Test
+    public void json_streamsTallBoard() {
+        // many rows of tiles, the builder grows and trims its tiles
+        var fields = new FieldType[Tile.SIZE * 9 + 5][3];
+        for (FieldType[] row : fields) Arrays.fill(row, NORMAL);
+        fields[0][0] = START;
+        fields[fields.length - 1][2] = DOOR;
+
+        var board = new Board(fields);
+        var parsed = new Gson().fromJson(new Gson().toJson(board), Board.class);
+        Assert.assertEquals(board, parsed);
+        Assert.assertEquals(fields.length, parsed.getHeight());
+        Assert.assertEquals(new Vector(2, fields.length - 1), parsed.getExitPosition());
+    }
+
     @Test
     public void getField() {
         var expected = START;
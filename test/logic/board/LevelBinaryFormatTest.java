@@ -0,0 +1,118 @@
+package logic.board;
+
+import logic.Direction;
+import logic.exception.validation.ValidationException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class LevelBinaryFormatTest {
+
+    @Test
+    public void roundTrip_packed() throws IOException {
+        var random = new Random(13);
+        var fields = new FieldType[37][29];
+        for (FieldType[] row : fields) {
+            for (int x = 0; x < row.length; x++) {
+                row[x] = FieldType.values()[random.nextInt(FieldType.values().length)];
+            }
+        }
+        fields[3][5] = FieldType.START;
+        var level = new GameLevel(new Board(Direction.SOUTH, fields), Direction.SOUTH);
+        level.setName("Zufall");
+
+        var bytes = write(level);
+        Assert.assertEquals(LevelBinaryFormat.PACKED, bytes[5]);
+
+        assertSameLevel(level, LevelBinaryFormat.read(new ByteArrayInputStream(bytes)));
+        assertSameLevel(level, LevelBinaryFormat.read(new ByteArrayInputStream(bytes), bytes.length));
+    }
+
+    @Test
+    public void roundTrip_rle() throws IOException {
+        var fields = new FieldType[300][300];
+        for (FieldType[] row : fields) Arrays.fill(row, FieldType.NORMAL);
+        fields[150][150] = FieldType.START;
+        fields[299][0] = FieldType.DOOR;
+        var level = new GameLevel(new Board(Direction.EAST, fields), Direction.EAST);
+
+        var bytes = write(level);
+        Assert.assertEquals(LevelBinaryFormat.RLE, bytes[5]);
+        Assert.assertTrue(bytes.length < 100);
+
+        assertSameLevel(level, LevelBinaryFormat.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void load_detectsFormat() throws IOException {
+        var json = GameLevel.EMPTY_LEVEL.toJson().getBytes(StandardCharsets.UTF_8);
+        var binary = write(GameLevel.EMPTY_LEVEL);
+
+        assertSameLevel(GameLevel.EMPTY_LEVEL, GameLevel.load(new ByteArrayInputStream(json)));
+        assertSameLevel(GameLevel.EMPTY_LEVEL, GameLevel.load(new ByteArrayInputStream(binary)));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void read_rejectsCorruptFields() throws IOException {
+        var bytes = write(GameLevel.EMPTY_LEVEL);
+        // turn the run of walls into a run of start fields
+        bytes[bytes.length - 2] ^= 0x20;
+        LevelBinaryFormat.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void read_rejectsHugeSize() throws IOException {
+        var bytes = write(GameLevel.EMPTY_LEVEL);
+        // width of Integer.MAX_VALUE, nothing may be allocated for it
+        bytes[6] = 0x7F;
+        bytes[7] = bytes[8] = bytes[9] = (byte) 0xFF;
+        LevelBinaryFormat.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void read_rejectsSizeBeyondLength() throws IOException {
+        var fields = new FieldType[64][64];
+        for (int y = 0; y < fields.length; y++) {
+            for (int x = 0; x < fields[y].length; x++) fields[y][x] = FieldType.values()[(x + y) % FieldType.values().length];
+        }
+        var bytes = write(new GameLevel(new Board(Direction.EAST, fields), Direction.EAST));
+        Assert.assertEquals(LevelBinaryFormat.PACKED, bytes[5]);
+
+        // the header promises more fields than the data holds
+        LevelBinaryFormat.read(new ByteArrayInputStream(bytes), bytes.length / 2);
+    }
+
+    @Test
+    public void write_rejectsBoardThatCantBeRead() throws IOException {
+        var fields = new FieldType[1][LevelBinaryFormat.MAX_SIZE + 1];
+        Arrays.fill(fields[0], FieldType.NORMAL);
+        fields[0][0] = FieldType.START;
+        var level = new GameLevel(new Board(Direction.EAST, fields), Direction.EAST);
+
+        var out = new ByteArrayOutputStream();
+        try {
+            LevelBinaryFormat.write(level, out);
+            Assert.fail("Board was written");
+        } catch (ValidationException expected) {
+            Assert.assertEquals(0, out.size());
+        }
+    }
+
+    private static byte[] write(GameLevel level) throws IOException {
+        var out = new ByteArrayOutputStream();
+        LevelBinaryFormat.write(level, out);
+        return out.toByteArray();
+    }
+
+    private static void assertSameLevel(GameLevel expected, GameLevel actual) {
+        Assert.assertEquals(expected.getName(), actual.getName());
+        Assert.assertEquals(expected.getStartBotDirection(), actual.getStartBotDirection());
+        Assert.assertEquals(expected.getBoard(), actual.getBoard());
+    }
+}
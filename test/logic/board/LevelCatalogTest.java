@@ -0,0 +1,68 @@
+package logic.board;
+
+import logic.Direction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class LevelCatalogTest {
+
+    @Test
+    public void scan_readsMetadataOfEveryFormat() throws IOException {
+        var json = "{\"name\": \"json\", \"field\": [[4, 3, 3], [5, 1, 2]], \"botRotation\": 2}";
+        var binary = write(out -> LevelBinaryFormat.write(GameLevel.fromJson(json), out));
+        var pack = write(out -> LevelPack.write(List.of(GameLevel.EMPTY_LEVEL, GameLevel.fromJson(json)), out));
+
+        List<LevelCatalog.Entry> entries = new CopyOnWriteArrayList<>();
+        List<Exception> errors = new ArrayList<>();
+        try (var catalog = new LevelCatalog(2)) {
+            catalog.scan(List.of(
+                    LevelCatalog.Source.of("a.json", () -> new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))),
+                    LevelCatalog.Source.of("b" + LevelBinaryFormat.EXTENSION, () -> new ByteArrayInputStream(binary)),
+                    LevelCatalog.Source.of("c" + LevelPack.EXTENSION, () -> new ByteArrayInputStream(pack)),
+                    LevelCatalog.Source.of("d.json", () -> new ByteArrayInputStream(new byte[]{'['}))
+            ), entries::add, errors::add).join();
+
+            Assert.assertEquals(4, entries.size());
+            Assert.assertEquals(1, errors.size());
+            Assert.assertEquals(List.of("a.json", "b.eblv", "c.eblp", "c.eblp"),
+                    entries.stream().map(LevelCatalog.Entry::source).toList());
+            Assert.assertEquals(1, entries.get(3).index());
+
+            for (LevelCatalog.Entry entry : entries) {
+                var level = catalog.load(entry);
+                Assert.assertEquals(LevelInfo.of(level), entry.info());
+            }
+            Assert.assertEquals(new LevelInfo("json", 3, 2, GameLevel.fromJson(json).getBoard().getHash()), entries.get(0).info());
+            Assert.assertSame(catalog.load(entries.get(3)), catalog.load(entries.get(3)));
+        }
+    }
+
+    @Test
+    public void info_matchesBoardHash() throws IOException {
+        var level = new GameLevel(new Board(new FieldType[][]{
+                {FieldType.NORMAL, FieldType.START, FieldType.ABYSS},
+                {FieldType.START, FieldType.COIN, FieldType.DOOR}
+        }), Direction.WEST);
+
+        Assert.assertEquals(LevelInfo.of(level),
+                LevelInfo.read(new ByteArrayInputStream(level.toJson().getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private interface Writer {
+        void write(ByteArrayOutputStream out) throws IOException;
+    }
+
+    private static byte[] write(Writer writer) throws IOException {
+        var out = new ByteArrayOutputStream();
+        writer.write(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,92 @@
+package logic.board;
+
+import logic.Direction;
+import logic.exception.validation.ValidationException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LevelPackTest {
+
+    @Test
+    public void open_decodesLevelsOnDemand() throws IOException {
+        List<GameLevel> levels = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            var level = corridor(3 + i % 50);
+            if (i % 2 == 0) level.setName("Level " + i);
+            levels.add(level);
+        }
+
+        var file = Files.createTempFile("levels", LevelPack.EXTENSION);
+        try {
+            LevelPack.write(levels, file);
+            var pack = LevelPack.open(file);
+
+            Assert.assertEquals(10_000, pack.size());
+            Assert.assertEquals("Level 9998", pack.getName(9998));
+            Assert.assertNull(pack.getName(9999));
+            Assert.assertEquals("fallback", pack.getName(9999, "fallback"));
+            Assert.assertEquals(levels.get(4711).getBoard().getHash(), pack.getHash(4711));
+            Assert.assertEquals(levels.get(4711).getBoard(), pack.load(4711).getBoard());
+            Assert.assertEquals(levels.get(9999).getBoard(), pack.load(9999).getBoard());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = ValidationException.class)
+    public void read_rejectsTruncatedPack() throws IOException {
+        var out = new ByteArrayOutputStream();
+        LevelPack.write(List.of(corridor(5), corridor(6)), out);
+        var bytes = Arrays.copyOf(out.toByteArray(), out.size() - 10);
+
+        LevelPack.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void write_streamsSameBytesAsFile() throws IOException {
+        var levels = List.of(corridor(5), corridor(6), corridor(7));
+        levels.get(1).setName("Second");
+        var out = new ByteArrayOutputStream();
+        LevelPack.write(levels, out);
+
+        var file = Files.createTempFile("levels", LevelPack.EXTENSION);
+        try {
+            LevelPack.write(levels, file);
+            Assert.assertArrayEquals(Files.readAllBytes(file), out.toByteArray());
+        } finally {
+            Files.delete(file);
+        }
+
+        var pack = LevelPack.read(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals("Second", pack.getName(1));
+        Assert.assertEquals(levels.get(2).getBoard(), pack.load(2).getBoard());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void read_rejectsOffsetBeyondIntRange() throws IOException {
+        var out = new ByteArrayOutputStream();
+        LevelPack.write(List.of(corridor(5)), out);
+        var bytes = out.toByteArray();
+        // offset of the first level follows magic, version and count
+        ByteBuffer.wrap(bytes).putLong(4 + 1 + 4, (1L << 32) + 1);
+
+        LevelPack.read(new ByteArrayInputStream(bytes));
+    }
+
+    private static GameLevel corridor(int length) {
+        var fields = new FieldType[1][length];
+        Arrays.fill(fields[0], FieldType.NORMAL);
+        fields[0][0] = FieldType.START;
+        fields[0][length - 1] = FieldType.DOOR;
+        return new GameLevel(new Board(Direction.EAST, fields), Direction.EAST);
+    }
+}
@@ -0,0 +1,107 @@
+package logic.board;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Duration;
+
+public class LevelPipelineTest {
+
+    @Test
+    public void run_keepsOrderOfInput() throws IOException, InterruptedException {
+        var input = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            input.append("{\"name\": \"").append(i).append("\", \"field\": [[4");
+            input.append(", 3".repeat(i % 7)).append(", 2]], \"botRotation\": 1}\n");
+        }
+        input.append('\n');
+        input.append("{\"field\": [[4, 5, 3, 2]], \"botRotation\": 1}\n");
+        input.append("{\"field\": [[4, 3, 3, 2]]\n");
+
+        var output = new StringWriter();
+        long count;
+        try (var pipeline = new LevelPipeline(4, 3)) {
+            count = pipeline.run(new StringReader(input.toString()), output);
+        }
+
+        var lines = output.toString().split("\n");
+        Assert.assertEquals(52, count);
+        Assert.assertEquals(52, lines.length);
+        for (int i = 0; i < 50; i++) {
+            JsonObject result = JsonParser.parseString(lines[i]).getAsJsonObject();
+            Assert.assertEquals(i + 1, result.get("line").getAsInt());
+            Assert.assertEquals(String.valueOf(i), result.get("name").getAsString());
+            Assert.assertEquals("VALID", result.get("status").getAsString());
+            Assert.assertTrue(result.get("verified").getAsBoolean());
+        }
+
+        JsonObject unreachable = JsonParser.parseString(lines[50]).getAsJsonObject();
+        Assert.assertEquals(52, unreachable.get("line").getAsInt());
+        Assert.assertEquals("INVALID", unreachable.get("status").getAsString());
+        Assert.assertEquals("NOT_REACHABLE",
+                unreachable.getAsJsonArray("problems").get(0).getAsJsonObject().get("type").getAsString());
+
+        JsonObject broken = JsonParser.parseString(lines[51]).getAsJsonObject();
+        Assert.assertEquals("FAILED", broken.get("status").getAsString());
+        Assert.assertNotNull(broken.get("error"));
+    }
+
+    @Test
+    public void run_reportsLevelsThatTakeTooLong() throws IOException, InterruptedException {
+        // a large board with many coins takes far longer than a nanosecond
+        var row = "[" + "1, ".repeat(199) + "3]";
+        var input = "{\"field\": [[4" + ", 3".repeat(199) + "]" + (", " + row).repeat(199) + ", [2" + ", 3".repeat(199) + "]],"
+                + " \"botRotation\": 1}\n";
+
+        var output = new StringWriter();
+        try (var pipeline = new LevelPipeline(1, 1, Duration.ofNanos(1))) {
+            Assert.assertEquals(1, pipeline.run(new StringReader(input), output));
+        }
+
+        JsonObject result = JsonParser.parseString(output.toString().trim()).getAsJsonObject();
+        Assert.assertEquals(1, result.get("line").getAsInt());
+        Assert.assertEquals("TIMED_OUT", result.get("status").getAsString());
+    }
+
+    @Test
+    public void run_releasesFinishedLevels() throws IOException, InterruptedException {
+        var input = "{\"field\": [[4, 3, 2]], \"botRotation\": 1}\n".repeat(2000);
+
+        var output = new StringWriter();
+        try (var pipeline = new LevelPipeline(4, 8, Duration.ofHours(1))) {
+            Assert.assertEquals(2000, pipeline.run(new StringReader(input), output));
+            // the timeouts of finished levels don't keep them until the timeout fires
+            Assert.assertEquals(0, pipeline.scheduledTimeouts());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void run_rethrowsFailureOfWriter() throws IOException, InterruptedException {
+        var input = "{\"field\": [[4, 3, 2]], \"botRotation\": 1}\n".repeat(20);
+        var output = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                throw new IllegalStateException("Output is broken");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        // more levels than capacity, the reader must not block once the writer failed
+        try (var pipeline = new LevelPipeline(2, 1)) {
+            pipeline.run(new StringReader(input), output);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package logic.board;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+
+public class LevelSaverTest {
+
+    @Test
+    public void save_writesLatestLevelAtomically() throws IOException {
+        var directory = Files.createTempDirectory("levels");
+        var json = directory.resolve("level.json");
+        var binary = directory.resolve("level" + LevelBinaryFormat.EXTENSION);
+        var named = GameLevel.fromJson(GameLevel.EMPTY_LEVEL.toJson());
+        named.setName("latest");
+
+        try (var saver = new LevelSaver()) {
+            CompletableFuture<?> first = saver.save(GameLevel.EMPTY_LEVEL, json);
+            CompletableFuture<?> last = saver.save(named, json);
+            saver.save(named, binary).join();
+            last.join();
+            Assert.assertTrue(first.isDone());
+
+            Assert.assertEquals(named.toJson(), Files.readString(json));
+            try (InputStream input = Files.newInputStream(binary)) {
+                Assert.assertEquals("latest", GameLevel.load(input).getName());
+            }
+            // no temporary files are left behind
+            try (var files = Files.list(directory)) {
+                Assert.assertEquals(2, files.count());
+            }
+        } finally {
+            try (var files = Files.walk(directory)) {
+                for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void save_keepsPermissionsOfTarget() throws IOException {
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) return;
+
+        var directory = Files.createTempDirectory("levels");
+        var json = directory.resolve("level.json");
+        try (var saver = new LevelSaver()) {
+            Files.writeString(json, GameLevel.EMPTY_LEVEL.toJson());
+            var permissions = PosixFilePermissions.fromString("rw-r-----");
+            Files.setPosixFilePermissions(json, permissions);
+
+            saver.save(GameLevel.EMPTY_LEVEL, json).join();
+            Assert.assertEquals(permissions, Files.getPosixFilePermissions(json));
+        } finally {
+            try (var files = Files.walk(directory)) {
+                for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+            }
+        }
+    }
+}
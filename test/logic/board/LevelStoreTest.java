@@ -0,0 +1,189 @@
+package logic.board;
+
+import logic.Direction;
+import logic.exception.validation.MissingFieldException;
+import logic.util.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+public class LevelStoreTest {
+
+    @Test
+    public void put_deduplicatesBoardsAndKeepsNames() throws IOException {
+        var directory = Files.createTempDirectory("store");
+        try {
+            var store = LevelStore.open(directory);
+            var first = GameLevel.fromJson("{\"name\": \"first\", \"field\": [[4, 3, 3], [5, 1, 2]], \"botRotation\": 2}");
+            var copy = GameLevel.fromJson("{\"name\": \"copy\", \"field\": [[4, 3, 3], [5, 1, 2]], \"botRotation\": 2}");
+            var turned = GameLevel.fromJson("{\"name\": \"turned\", \"field\": [[4, 3, 3], [5, 1, 2]], \"botRotation\": 1}");
+
+            final long hash = store.put(first);
+            Assert.assertEquals(hash, store.put(copy));
+            Assert.assertNotEquals(hash, store.put(turned));
+            Assert.assertEquals(2, store.size());
+            Assert.assertTrue(store.contains(hash));
+
+            // reopening restores the index
+            store = LevelStore.open(directory);
+            Assert.assertEquals(2, store.size());
+            Assert.assertEquals(Set.of("copy", "first", "turned"), store.names());
+            Assert.assertEquals(hash, store.hashOf("copy").getAsLong());
+            Assert.assertTrue(store.hashOf("missing").isEmpty());
+
+            var stored = store.get(hash);
+            Assert.assertNull(stored.getName());
+            Assert.assertEquals(first.getBoard(), stored.getBoard());
+            Assert.assertEquals(Direction.SOUTH, stored.getStartBotDirection());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void analysisCache_reusesStoredAnalysis() throws IOException {
+        var directory = Files.createTempDirectory("store");
+        try {
+            var level = GameLevel.fromJson("{\"field\": [[4, 3, 3, 2], [3, 3, 3, 3]], \"botRotation\": 1}");
+
+            var cache = new AnalysisCache(4);
+            var first = LevelStore.open(directory);
+            cache.setStore(first);
+            var analysis = cache.analyze(level.getBoard());
+            Assert.assertFalse(analysis.solution().isEmpty());
+            first.flush().join();
+
+            // a new session finds the analysis without analysing the board again
+            var store = LevelStore.open(directory);
+            Assert.assertTrue(store.isAnalyzed(level.getBoard().getContentHash()));
+            var stored = store.findAnalysis(new Board(level.getBoard()));
+            Assert.assertEquals(analysis.problems(), stored.problems());
+            Assert.assertEquals(analysis.solution().size(), stored.solution().size());
+            for (int i = 0; i < analysis.solution().size(); i++) {
+                Assert.assertEquals(analysis.solution().get(i).getId(), stored.solution().get(i).getId());
+                Assert.assertEquals(analysis.solution().get(i).toString(), stored.solution().get(i).toString());
+            }
+
+            var other = new AnalysisCache(4);
+            other.setStore(store);
+            other.preload(level.getBoard()).join();
+            Assert.assertEquals(analysis.solution().toString(), other.analyze(level.getBoard()).solution().toString());
+            Assert.assertEquals(1, other.getHits());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void findAnalysis_ignoresPositionOfBot() throws IOException {
+        var directory = Files.createTempDirectory("store");
+        try {
+            var board = GameLevel.fromJson("{\"field\": [[4, 3, 3, 2], [3, 3, 3, 3]], \"botRotation\": 1}").getBoard();
+            board.setBot(new Vector(2, 0));
+
+            var store = LevelStore.open(directory);
+            var cache = new AnalysisCache(4);
+            cache.setStore(store);
+            var analysis = cache.analyze(board);
+            store.flush().join();
+
+            // the board is read back with the bot on start
+            var stored = store.findAnalysis(store.get(board.getContentHash()).getBoard());
+            Assert.assertNotNull(stored);
+            Assert.assertEquals(analysis.solution().toString(), stored.solution().toString());
+
+            // stored again, e.g. after the analysis was evicted from the cache
+            store.putAnalysis(board, analysis);
+            Assert.assertEquals(1, store.size());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void put_skipsHashCollision() throws IOException {
+        var directory = Files.createTempDirectory("store");
+        try {
+            var first = GameLevel.fromJson("{\"name\": \"first\", \"field\": [[4, 3, 2]], \"botRotation\": 1}");
+            var second = GameLevel.fromJson("{\"name\": \"second\", \"field\": [[4, 3, 3, 2]], \"botRotation\": 1}");
+            final long firstHash = LevelStore.open(directory).put(first);
+            final long secondHash = second.getBoard().getContentHash();
+
+            // the first board, stored under the hash of the second one
+            var objects = directory.resolve("objects");
+            Files.copy(objects.resolve("%016x.eblv".formatted(firstHash)), objects.resolve("%016x.eblv".formatted(secondHash)),
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            var store = LevelStore.open(directory);
+            Assert.assertEquals(secondHash, store.put(second));
+            Assert.assertTrue(store.hashOf("second").isEmpty());
+            Assert.assertEquals(first.getBoard(), store.get(secondHash).getBoard());
+
+            store.putAnalysis(second.getBoard(), new AnalysisCache.Analysis(List.of(), List.of()));
+            Assert.assertFalse(store.isAnalyzed(secondHash));
+            Assert.assertNull(store.findAnalysis(second.getBoard()));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void findAnalysis_ignoresOtherVersions() throws IOException {
+        var directory = Files.createTempDirectory("store");
+        try {
+            var level = GameLevel.fromJson("{\"field\": [[4, 3, 3, 2]], \"botRotation\": 1}");
+            final long hash = LevelStore.open(directory).put(level);
+
+            // written before analyses had a version, e.g. by an older solver
+            Files.writeString(directory.resolve("analyses").resolve("%016x.json".formatted(hash)),
+                    "{\"problems\":[{\"type\":\"SOLUTION_TOO_BIG\",\"field\":\"START\"}],\"solution\":[]}");
+
+            var store = LevelStore.open(directory);
+            Assert.assertFalse(store.isAnalyzed(hash));
+            Assert.assertNull(store.findAnalysis(level.getBoard()));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void put_rejectsBoardWithoutStart() throws IOException {
+        var directory = Files.createTempDirectory("store");
+        try {
+            var store = LevelStore.open(directory);
+            var board = Board.from(Direction.EAST, List.of(FieldType.NORMAL, FieldType.DOOR));
+
+            // also the second time, nothing was stored that had to be read back
+            for (int i = 0; i < 2; i++) {
+                try {
+                    store.put(new GameLevel(board, Direction.EAST));
+                    Assert.fail("Board without start was stored");
+                } catch (MissingFieldException expected) {
+                    Assert.assertEquals(FieldType.START, expected.getMissingFieldType());
+                }
+            }
+
+            // analysed, but not stored
+            var cache = new AnalysisCache(4);
+            cache.setStore(store);
+            Assert.assertFalse(cache.analyze(board).problems().isEmpty());
+            store.flush().join();
+            Assert.assertEquals(0, store.size());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+}
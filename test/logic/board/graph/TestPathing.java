@@ -1,10 +1,17 @@
 package logic.board.graph;
 
 import logic.board.Board;
+import logic.board.FieldType;
 import logic.board.GameLevel;
 import logic.util.Vector;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static logic.procedure.Instruction.*;
+
 public class TestPathing {
 
     @Test
@@ -28,6 +35,151 @@ public class TestPathing {
         System.out.println(graph);
     }
 
+    @Test
+    public void test_graph_edges() {
+        Board board = GameLevel.fromJson("{\"field\": [[4, 0, 3, 5, 2]], \"botRotation\": 1}").getBoard();
+
+        Graph graph = Graph.of(board);
+        // start jumps over the abyss, the wall has no node and blocks the door
+        Assert.assertEquals(List.of(2), targets(graph, 0));
+        Assert.assertEquals(List.of(0), targets(graph, 2));
+        Assert.assertEquals(List.of(), targets(graph, 1));
+        Assert.assertNull(graph.get(new Vector(3, 0)));
+        Assert.assertNull(graph.get(new Vector(5, 0)));
+
+        // the bot can't land on an abyss
+        Graph abyss = Graph.of(GameLevel.fromJson("{\"field\": [[4, 0, 0, 3, 2]], \"botRotation\": 1}").getBoard());
+        Assert.assertEquals(List.of(), targets(abyss, 0));
+    }
+
+    @Test
+    public void test_distances_areShortest() {
+        Board board = GameLevel.fromJson("""
+                {
+                  "field": [
+                    [4, 3, 3, 3],
+                    [3, 5, 5, 3],
+                    [3, 0, 3, 2]
+                  ],
+                  "botRotation": 1
+                }""").getBoard();
+
+        Graph graph = Graph.of(board);
+        graph.calculateDistances(new Vector(0, 0));
+        var distances = graph.getDistances();
+        // around the top is 5 moves, jumping the abyss at the bottom is 4
+        Assert.assertEquals(4, graph.get(new Vector(3, 2)).getDistanceFromStart());
+        Assert.assertEquals(List.of(new Vector(0, 0), new Vector(0, 1), new Vector(0, 2), new Vector(2, 2)),
+                graph.get(new Vector(3, 2)).getPathFromStart().stream().map(Node::getPosition).toList());
+        Assert.assertEquals(DistanceField.UNREACHABLE, distances.distance(graph.index(1, 1)));
+        Assert.assertEquals(DistanceField.NO_PARENT, distances.parent(graph.index(0, 0)));
+    }
+
+    @Test
+    public void test_pathTo_rebuildsFromParents() {
+        // long corridor, paths are rebuilt from parents only
+        int length = 10_000;
+        Board board = GameLevel.fromJson("{\"field\": [[4" + ", 3".repeat(length - 2) + ", 2]], \"botRotation\": 1}").getBoard();
+
+        PathFinder pathFinder = new PathFinder(board);
+        var path = pathFinder.pathTo(new Vector(0, 0), new Vector(length - 1, 0));
+        Assert.assertEquals(length, path.length());
+        for (int i = 0; i < length; i++) Assert.assertEquals(i, path.get(i));
+
+        // the buffer is reused by the next query
+        Assert.assertSame(path, pathFinder.pathTo(new Vector(0, 0), new Vector(2, 0)));
+        Assert.assertArrayEquals(new int[]{0, 1, 2}, path.toArray());
+    }
+
+    @Test
+    public void test_completePath_collectsNearestCoinsFirst() {
+        // start in the middle, the coin left of it is nearer than the coin right of it
+        Board board = GameLevel.fromJson("{\"field\": [[2, 3, 1, 4, 3, 3, 1]], \"botRotation\": 1}").getBoard();
+        Board before = new Board(board);
+
+        var path = new PathFinder(board).generateCompletePath();
+        Assert.assertArrayEquals(new int[]{3, 2, 3, 4, 5, 6, 5, 4, 3, 2, 1, 0}, path.toArray());
+        // coins are collected without changing the board
+        Assert.assertEquals(before, board);
+    }
+
+    @Test
+    public void test_pointQuery_matchesDistanceField() {
+        Board board = GameLevel.fromJson("""
+                {
+                  "field": [
+                    [4, 3, 3, 3, 1],
+                    [3, 5, 5, 0, 3],
+                    [3, 0, 3, 0, 3],
+                    [1, 0, 5, 3, 2]
+                  ],
+                  "botRotation": 1
+                }""").getBoard();
+
+        Graph graph = Graph.of(board);
+        PointQuery query = new PointQuery(graph);
+        CellPath path = new CellPath();
+        for (int from = 0; from < graph.size(); from++) {
+            graph.getDistances().compute(from);
+            for (int to = 0; to < graph.size(); to++) {
+                final int expected = graph.getDistances().isReachable(to) ? graph.getDistances().distance(to) : -1;
+
+                path.clear();
+                Assert.assertEquals(expected, query.aStar(from, to, path));
+                assertPath(graph, from, to, expected, path);
+
+                path.clear();
+                Assert.assertEquals(expected, query.bidirectional(from, to, path));
+                assertPath(graph, from, to, expected, path);
+            }
+        }
+    }
+
+    private static void assertPath(Graph graph, int from, int to, int distance, CellPath path) {
+        if (distance < 0) {
+            Assert.assertEquals(0, path.length());
+            return;
+        }
+        Assert.assertEquals(distance + 1, path.length());
+        Assert.assertEquals(from, path.get(0));
+        Assert.assertEquals(to, path.get(distance));
+        for (int i = 1; i < path.length(); i++) {
+            Assert.assertTrue(targets(graph, path.get(i - 1)).contains(path.get(i)));
+        }
+    }
+
+    @Test
+    public void test_solve_minimizesInstructions() {
+        Board board = GameLevel.fromJson("""
+                {
+                  "field": [
+                    [4, 3, 3, 3],
+                    [3, 3, 3, 3],
+                    [3, 3, 3, 3],
+                    [3, 3, 3, 2]
+                  ],
+                  "botRotation": 1
+                }""").getBoard();
+
+        // a single turn: along the top row, then down in front of the door
+        Assert.assertEquals(List.of(FORWARD, FORWARD, FORWARD, TURN_RIGHT, FORWARD, FORWARD, EXIT),
+                new PathFinder(board).solve());
+    }
+
+    @Test
+    public void test_analyze_doorOnlyReachableByJumping() {
+        Board board = GameLevel.fromJson("{\"field\": [[4, 3, 0, 2]], \"botRotation\": 1}").getBoard();
+
+        Assert.assertEquals(List.of(new Board.Problem(Board.ProblemType.NOT_REACHABLE, FieldType.DOOR, new Vector(3, 0))),
+                board.analyze());
+    }
+
+    private static List<Integer> targets(Graph graph, int cell) {
+        List<Integer> targets = new ArrayList<>();
+        for (int edge = graph.firstEdge(cell); edge < graph.endEdge(cell); edge++) targets.add(graph.target(edge));
+        return targets;
+    }
+
     @Test
     public void test_dijkstra() {
         Board board = GameLevel.fromJson("""
@@ -46,9 +198,11 @@ public class TestPathing {
                 }""").getBoard();
 
         Graph graph = Graph.of(board);
-        graph.dijkstra(new Vector(0,0));
-        System.out.println("====");
-        graph.getCoins().forEach(node -> System.out.printf("%s distance: %d\n", node, node.getDistanceFromStart()));
+        graph.calculateDistances(new Vector(0, 0));
+        // coins in order of cells: top right, bottom left, bottom right
+        Assert.assertEquals(List.of(7, 9, 14), graph.getCoins().stream().map(Node::getDistanceFromStart).toList());
+        Assert.assertEquals(0, graph.get(new Vector(0, 0)).getDistanceFromStart());
+        Assert.assertEquals(DistanceField.UNREACHABLE, graph.get(new Vector(2, 1)).getDistanceFromStart());
     }
 
     @Test
@@ -1,8 +1,11 @@
 package logic.logic;
 
+import com.google.gson.Gson;
+import logic.Direction;
 import logic.action.Action;
 import logic.action.ActionType;
 import logic.action.Actions;
+import logic.util.Vector;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -70,4 +73,19 @@ public class ActionsTest {
         Assert.assertEquals(ACTION_START_EXECUTE_P1, actions.last());
     }
 
+    @Test
+    public void test_json_roundTrip() {
+        Actions actions = new Actions(
+                new Action(ActionType.START, new Vector(1, 2), Direction.EAST),
+                new Action(ActionType.JUMP, new Vector(1, 2), Direction.NORTH, new Vector(1, 0)),
+                ACTION_START_EXECUTE_P1);
+
+        Assert.assertEquals("[{\"type\":\"START\",\"position\":{\"x\":1,\"y\":2,\"z\":0},\"direction\":1,\"procedure\":-1,\"instruction\":-1},"
+                        + "{\"type\":\"JUMP\",\"position\":{\"x\":1,\"y\":2,\"z\":0},\"destination\":{\"x\":1,\"y\":0,\"z\":0},\"direction\":0,\"procedure\":-1,\"instruction\":-1},"
+                        + "{\"type\":\"START_EXECUTE_P1\",\"procedure\":-1,\"instruction\":-1}]",
+                actions.toString());
+
+        Actions read = new Gson().fromJson(actions.toString(), Actions.class);
+        Assert.assertEquals(actions.toString(), read.toString());
+    }
 }
@@ -1,5 +1,6 @@
 package logic.util;
 
+import com.google.gson.Gson;
 import org.junit.Test;
 
 public class VectorTest {
@@ -167,4 +168,14 @@ public class VectorTest {
         assert !v2.equals(v3);
         assert !v3.equals(v2);
     }
+
+    @Test
+    public void json_roundTrip() {
+        var v = new Vector(1, -4, 7);
+        var gson = new Gson();
+
+        assert v.toString().equals("{\"x\":1,\"y\":-4,\"z\":7}");
+        assert gson.toJson(v).equals(v.toString());
+        assert gson.fromJson(v.toString(), Vector.class).equals(v);
+    }
 }